@@ -0,0 +1,158 @@
+package com.bluelinelabs.conductor.benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A single benchmark case. The set up and tear down steps run around every iteration, but only the
+ * operation itself is timed and has its allocations counted.
+ */
+final class Benchmark {
+
+    interface Step {
+        void run();
+    }
+
+    private static final Step NO_OP = () -> { };
+
+    static final int WARMUP_ITERATIONS = Integer.getInteger("conductor.benchmarks.warmupIterations", 200);
+    static final int ITERATIONS = Integer.getInteger("conductor.benchmarks.iterations", 1000);
+
+    private final String name;
+    private final Map<String, Object> params = new LinkedHashMap<>();
+    private int entries;
+    private Step setUp = NO_OP;
+    private Step tearDown = NO_OP;
+
+    private Benchmark(String name) {
+        this.name = name;
+    }
+
+    static Benchmark named(String name) {
+        return new Benchmark(name);
+    }
+
+    Benchmark param(String key, Object value) {
+        params.put(key, value);
+        return this;
+    }
+
+    /**
+     * Also reports the time per entry for operations expected to scale with the passed number of entries, which
+     * stays flat across sizes for operations that scale linearly.
+     */
+    Benchmark perEntry(int entries) {
+        this.entries = entries;
+        return this;
+    }
+
+    Benchmark setUp(Step setUp) {
+        this.setUp = setUp;
+        return this;
+    }
+
+    Benchmark tearDown(Step tearDown) {
+        this.tearDown = tearDown;
+        return this;
+    }
+
+    Result run(Step operation) {
+        AllocationCounter allocationCounter = AllocationCounter.create();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            setUp.run();
+            operation.run();
+            tearDown.run();
+        }
+
+        long[] durations = new long[ITERATIONS];
+        long allocatedBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            setUp.run();
+
+            long allocatedBefore = allocationCounter.allocatedBytes();
+            long start = System.nanoTime();
+            operation.run();
+            durations[i] = System.nanoTime() - start;
+            allocatedBytes += allocationCounter.allocatedBytes() - allocatedBefore;
+
+            tearDown.run();
+        }
+
+        return new Result(name, params, entries, durations, allocationCounter.isSupported() ? allocatedBytes / ITERATIONS : -1);
+    }
+
+    static final class Result {
+        final String name;
+        final Map<String, Object> params;
+        final int entries;
+        final int iterations;
+        final long meanNanos;
+        final long medianNanos;
+        final long p90Nanos;
+        final long allocatedBytesPerOp;
+
+        Result(String name, Map<String, Object> params, int entries, long[] durations, long allocatedBytesPerOp) {
+            this.name = name;
+            this.params = params;
+            this.entries = entries;
+            this.allocatedBytesPerOp = allocatedBytesPerOp;
+            iterations = durations.length;
+
+            long total = 0;
+            for (long duration : durations) {
+                total += duration;
+            }
+            meanNanos = total / durations.length;
+
+            long[] sorted = Arrays.copyOf(durations, durations.length);
+            Arrays.sort(sorted);
+            medianNanos = sorted[sorted.length / 2];
+            p90Nanos = sorted[(int) (sorted.length * 0.9)];
+        }
+
+        double opsPerSecond() {
+            return meanNanos > 0 ? 1_000_000_000.0 / meanNanos : 0;
+        }
+
+        double meanNanosPerEntry() {
+            return entries > 0 ? (double) meanNanos / entries : 0;
+        }
+    }
+
+    /**
+     * Reads the current thread's allocated bytes where the JVM supports it.
+     */
+    private static final class AllocationCounter {
+        private final com.sun.management.ThreadMXBean bean;
+        private final long threadId = Thread.currentThread().getId();
+
+        private AllocationCounter(com.sun.management.ThreadMXBean bean) {
+            this.bean = bean;
+        }
+
+        static AllocationCounter create() {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (bean.isThreadAllocatedMemorySupported()) {
+                    bean.setThreadAllocatedMemoryEnabled(true);
+                    return new AllocationCounter(bean);
+                }
+            }
+            return new AllocationCounter(null);
+        }
+
+        boolean isSupported() {
+            return bean != null;
+        }
+
+        long allocatedBytes() {
+            return bean != null ? bean.getThreadAllocatedBytes(threadId) : 0;
+        }
+    }
+
+}
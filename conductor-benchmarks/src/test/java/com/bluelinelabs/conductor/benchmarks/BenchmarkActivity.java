@@ -0,0 +1,23 @@
+package com.bluelinelabs.conductor.benchmarks;
+
+import android.os.Bundle;
+import android.widget.FrameLayout;
+
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+
+public class BenchmarkActivity extends AppCompatActivity {
+
+    FrameLayout container;
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        setTheme(androidx.appcompat.R.style.Theme_AppCompat);
+        super.onCreate(savedInstanceState);
+
+        container = new FrameLayout(this);
+        container.setId(R.id.benchmark_container);
+        setContentView(container);
+    }
+
+}
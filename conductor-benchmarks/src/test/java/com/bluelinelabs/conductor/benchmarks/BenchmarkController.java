@@ -0,0 +1,63 @@
+package com.bluelinelabs.conductor.benchmarks;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bluelinelabs.conductor.Controller;
+
+/**
+ * A Controller with a small view hierarchy and a container that child routers can be hosted in.
+ */
+public class BenchmarkController extends Controller {
+
+    private static final String KEY_TITLE = "BenchmarkController.title";
+
+    public BenchmarkController() {
+        this("Benchmark");
+    }
+
+    public BenchmarkController(String title) {
+        this(createArgs(title));
+    }
+
+    public BenchmarkController(@Nullable Bundle args) {
+        super(args);
+    }
+
+    @NonNull
+    @Override
+    protected View onCreateView(@NonNull LayoutInflater inflater, @NonNull ViewGroup container, @Nullable Bundle savedViewState) {
+        FrameLayout view = new FrameLayout(inflater.getContext());
+
+        TextView title = new TextView(inflater.getContext());
+        title.setId(R.id.benchmark_title);
+        title.setText(getArgs().getString(KEY_TITLE));
+        view.addView(title);
+
+        FrameLayout childContainer = new FrameLayout(inflater.getContext());
+        childContainer.setId(R.id.benchmark_child_container);
+        view.addView(childContainer);
+
+        return view;
+    }
+
+    @NonNull
+    ViewGroup getChildContainer() {
+        //noinspection ConstantConditions
+        return getView().findViewById(R.id.benchmark_child_container);
+    }
+
+    private static Bundle createArgs(String title) {
+        Bundle args = new Bundle();
+        args.putString(KEY_TITLE, title);
+        return args;
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.bluelinelabs.conductor.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collects the results of a benchmark class and writes them out as JSON, one file per class, so runs can be
+ * compared against each other to catch regressions.
+ */
+final class BenchmarkReport {
+
+    private final String name;
+    private final List<Benchmark.Result> results = new ArrayList<>();
+
+    BenchmarkReport(String name) {
+        this.name = name;
+    }
+
+    synchronized void add(Benchmark.Result result) {
+        results.add(result);
+    }
+
+    synchronized void write() throws IOException {
+        File directory = new File(System.getProperty("conductor.benchmarks.output", "build/benchmarks"));
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(new File(directory, name + ".json")), Charset.forName("UTF-8"))) {
+            writer.write(toJson());
+        }
+    }
+
+    private String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"suite\": ").append(quote(name)).append(",\n");
+        json.append("  \"warmupIterations\": ").append(Benchmark.WARMUP_ITERATIONS).append(",\n");
+        json.append("  \"benchmarks\": [");
+
+        for (int i = 0; i < results.size(); i++) {
+            Benchmark.Result result = results.get(i);
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\n");
+            json.append("      \"name\": ").append(quote(result.name)).append(",\n");
+            json.append("      \"params\": {");
+
+            boolean first = true;
+            for (Map.Entry<String, Object> param : result.params.entrySet()) {
+                json.append(first ? "" : ", ").append(quote(param.getKey())).append(": ");
+                if (param.getValue() instanceof Number || param.getValue() instanceof Boolean) {
+                    json.append(param.getValue());
+                } else {
+                    json.append(quote(String.valueOf(param.getValue())));
+                }
+                first = false;
+            }
+
+            json.append("},\n");
+            json.append("      \"iterations\": ").append(result.iterations).append(",\n");
+            json.append("      \"meanNanos\": ").append(result.meanNanos).append(",\n");
+            json.append("      \"medianNanos\": ").append(result.medianNanos).append(",\n");
+            json.append("      \"p90Nanos\": ").append(result.p90Nanos).append(",\n");
+            json.append("      \"opsPerSecond\": ").append(String.format(Locale.US, "%.1f", result.opsPerSecond())).append(",\n");
+            if (result.entries > 0) {
+                json.append("      \"meanNanosPerEntry\": ").append(String.format(Locale.US, "%.1f", result.meanNanosPerEntry())).append(",\n");
+            }
+            json.append("      \"allocatedBytesPerOp\": ").append(result.allocatedBytesPerOp).append("\n");
+            json.append("    }");
+        }
+
+        json.append(results.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        return json.toString();
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        quoted.append(String.format(Locale.US, "\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.bluelinelabs.conductor.benchmarks;
+
+import android.os.Bundle;
+
+import com.bluelinelabs.conductor.Conductor;
+import com.bluelinelabs.conductor.Router;
+import com.bluelinelabs.conductor.RouterTransaction;
+import com.bluelinelabs.conductor.changehandler.SimpleSwapChangeHandler;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.ParameterizedRobolectricTestRunner.Parameters;
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Throughput and allocation of operations that have to walk a hierarchy of child routers.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class NestedRouterBenchmarks {
+
+    private static final BenchmarkReport report = new BenchmarkReport("NestedRouterBenchmarks");
+
+    @Parameters(name = "nesting={0}, depth={1}")
+    public static List<Object[]> parameters() {
+        List<Object[]> parameters = new ArrayList<>();
+        for (int nesting : new int[] { 0, 1, 3 }) {
+            for (int depth : new int[] { 1, 10 }) {
+                parameters.add(new Object[] { nesting, depth });
+            }
+        }
+        return parameters;
+    }
+
+    private final int nesting;
+    private final int depth;
+
+    private Router router;
+    private Router innermostRouter;
+
+    public NestedRouterBenchmarks(int nesting, int depth) {
+        this.nesting = nesting;
+        this.depth = depth;
+    }
+
+    @Before
+    public void setup() {
+        // Measure the in-Bundle save path rather than the default file store or one left over from another test
+        Conductor.setRouterStateStore(null);
+
+        BenchmarkActivity activity = Robolectric.buildActivity(BenchmarkActivity.class).setup().get();
+        router = Conductor.attachRouter(activity, activity.container);
+
+        // Every level holds a full backstack, with the next level hosted by its top controller
+        Router current = router;
+        for (int level = 0; level <= nesting; level++) {
+            List<RouterTransaction> backstack = RouterBenchmarks.newBackstack(depth, "level " + level);
+            current.setBackstack(backstack, null);
+
+            if (level < nesting) {
+                BenchmarkController host = (BenchmarkController) backstack.get(backstack.size() - 1).controller();
+                current = host.getChildRouter(host.getChildContainer(), "level " + (level + 1));
+            }
+        }
+        innermostRouter = current;
+
+        ShadowLooper.idleMainLooper();
+    }
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        report.write();
+    }
+
+    @Test
+    public void handleBack() {
+        report.add(benchmark("handleBack")
+                .setUp(() -> innermostRouter.pushController(RouterTransaction.with(new BenchmarkController("pushed"))
+                        .pushChangeHandler(new SimpleSwapChangeHandler())
+                        .popChangeHandler(new SimpleSwapChangeHandler())))
+                .run(() -> assertTrue(router.handleBack())));
+
+        assertEquals(depth, innermostRouter.getBackstackSize());
+    }
+
+    @Test
+    public void saveInstanceState() {
+        report.add(benchmark("saveInstanceState")
+                .run(() -> router.saveInstanceState(new Bundle())));
+    }
+
+    @Test
+    public void getBackstackOfInnermostRouter() {
+        report.add(benchmark("getBackstack")
+                .run(() -> innermostRouter.getBackstack()));
+    }
+
+    private Benchmark benchmark(String name) {
+        return Benchmark.named(name).param("nesting", nesting).param("depth", depth);
+    }
+
+}
@@ -0,0 +1,178 @@
+package com.bluelinelabs.conductor.benchmarks;
+
+import android.os.Bundle;
+
+import com.bluelinelabs.conductor.Conductor;
+import com.bluelinelabs.conductor.ControllerChangeHandler;
+import com.bluelinelabs.conductor.Router;
+import com.bluelinelabs.conductor.RouterTransaction;
+import com.bluelinelabs.conductor.changehandler.FadeChangeHandler;
+import com.bluelinelabs.conductor.changehandler.HorizontalChangeHandler;
+import com.bluelinelabs.conductor.changehandler.SimpleSwapChangeHandler;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.ParameterizedRobolectricTestRunner.Parameters;
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Throughput and allocation of the core {@link Router} operations at different backstack depths.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class RouterBenchmarks {
+
+    private static final BenchmarkReport report = new BenchmarkReport("RouterBenchmarks");
+
+    @Parameters(name = "depth={0}")
+    public static List<Object[]> parameters() {
+        return Arrays.asList(new Object[][] { { 1 }, { 10 }, { 50 } });
+    }
+
+    private final int depth;
+
+    private BenchmarkActivity activity;
+    private Router router;
+
+    public RouterBenchmarks(int depth) {
+        this.depth = depth;
+    }
+
+    @Before
+    public void setup() {
+        // Measure the in-Bundle save path rather than the default file store or one left over from another test
+        Conductor.setRouterStateStore(null);
+
+        activity = Robolectric.buildActivity(BenchmarkActivity.class).setup().get();
+        router = Conductor.attachRouter(activity, activity.container);
+        router.setBackstack(newBackstack(depth, "root"), null);
+        ShadowLooper.idleMainLooper();
+    }
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        report.write();
+    }
+
+    @Test
+    public void pushController() {
+        final RouterTransaction[] next = new RouterTransaction[1];
+
+        report.add(benchmark("pushController")
+                .setUp(() -> next[0] = transaction("pushed", new SimpleSwapChangeHandler()))
+                .tearDown(() -> router.popCurrentController())
+                .run(() -> router.pushController(next[0])));
+
+        assertEquals(depth, router.getBackstackSize());
+    }
+
+    @Test
+    public void popController() {
+        report.add(benchmark("popController")
+                .setUp(() -> router.pushController(transaction("pushed", new SimpleSwapChangeHandler())))
+                .run(() -> router.popCurrentController()));
+
+        assertEquals(depth, router.getBackstackSize());
+    }
+
+    @Test
+    public void setBackstack() {
+        final List<List<RouterTransaction>> next = new ArrayList<>(1);
+
+        report.add(benchmark("setBackstack")
+                .setUp(() -> {
+                    next.clear();
+                    next.add(newBackstack(depth, "replacement"));
+                })
+                .run(() -> router.setBackstack(next.get(0), new SimpleSwapChangeHandler())));
+
+        assertEquals(depth, router.getBackstackSize());
+    }
+
+    @Test
+    public void saveInstanceState() {
+        report.add(benchmark("saveInstanceState")
+                .run(() -> router.saveInstanceState(new Bundle())));
+    }
+
+    @Test
+    public void restoreInstanceState() {
+        final BenchmarkController host = new BenchmarkController("host");
+        router.pushController(RouterTransaction.with(host));
+
+        Router source = host.getChildRouter(host.getChildContainer(), "source");
+        source.setBackstack(newBackstack(depth, "saved"), null);
+        final Bundle savedState = new Bundle();
+        source.saveInstanceState(savedState);
+        host.removeChildRouter(source);
+
+        final Router[] restored = new Router[1];
+
+        report.add(benchmark("restoreInstanceState")
+                .setUp(() -> restored[0] = host.getChildRouter(host.getChildContainer(), "restored"))
+                .tearDown(() -> host.removeChildRouter(restored[0]))
+                .run(() -> {
+                    restored[0].restoreInstanceState(savedState);
+                    restored[0].rebindIfNeeded();
+                }));
+    }
+
+    @Test
+    public void simpleSwapChangeHandler() {
+        changeHandler("simpleSwapChangeHandler", new SimpleSwapChangeHandler());
+    }
+
+    @Test
+    public void fadeChangeHandler() {
+        changeHandler("fadeChangeHandler", new FadeChangeHandler());
+    }
+
+    @Test
+    public void horizontalChangeHandler() {
+        changeHandler("horizontalChangeHandler", new HorizontalChangeHandler());
+    }
+
+    /**
+     * Runs a full push and pop with the passed handler, including its animations.
+     */
+    private void changeHandler(String name, final ControllerChangeHandler changeHandler) {
+        report.add(benchmark(name)
+                .run(() -> {
+                    router.pushController(transaction("pushed", changeHandler.copy()));
+                    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+                    router.popCurrentController();
+                    ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+                }));
+
+        assertEquals(depth, router.getBackstackSize());
+    }
+
+    private Benchmark benchmark(String name) {
+        return Benchmark.named(name).param("depth", depth);
+    }
+
+    private static RouterTransaction transaction(String title, ControllerChangeHandler changeHandler) {
+        return RouterTransaction.with(new BenchmarkController(title))
+                .pushChangeHandler(changeHandler)
+                .popChangeHandler(changeHandler.copy());
+    }
+
+    static List<RouterTransaction> newBackstack(int depth, String title) {
+        List<RouterTransaction> backstack = new ArrayList<>(depth);
+        for (int i = 0; i < depth; i++) {
+            backstack.add(RouterTransaction.with(new BenchmarkController(title + " " + i)));
+        }
+        return backstack;
+    }
+
+}
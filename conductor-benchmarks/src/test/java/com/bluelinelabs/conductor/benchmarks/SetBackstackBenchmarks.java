@@ -0,0 +1,121 @@
+package com.bluelinelabs.conductor.benchmarks;
+
+import com.bluelinelabs.conductor.Conductor;
+import com.bluelinelabs.conductor.Router;
+import com.bluelinelabs.conductor.RouterTransaction;
+import com.bluelinelabs.conductor.changehandler.SimpleSwapChangeHandler;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+import org.robolectric.ParameterizedRobolectricTestRunner.Parameters;
+import org.robolectric.Robolectric;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * How {@link Router#setBackstack} scales with the size of the backstack, such as when a deep link rebuilds a
+ * stack of hundreds of entries. Each result also reports its time per backstack entry, which should stay flat
+ * across depths as long as calculating and running the change plan is linear.
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class SetBackstackBenchmarks {
+
+    private static final BenchmarkReport report = new BenchmarkReport("SetBackstackBenchmarks");
+
+    @Parameters(name = "depth={0}")
+    public static List<Object[]> parameters() {
+        return Arrays.asList(new Object[][] { { 10 }, { 100 }, { 500 }, { 1000 } });
+    }
+
+    private final int depth;
+
+    private Router router;
+
+    public SetBackstackBenchmarks(int depth) {
+        this.depth = depth;
+    }
+
+    @Before
+    public void setup() {
+        BenchmarkActivity activity = Robolectric.buildActivity(BenchmarkActivity.class).setup().get();
+        router = Conductor.attachRouter(activity, activity.container);
+        router.setBackstack(RouterBenchmarks.newBackstack(depth, "root"), null);
+        ShadowLooper.idleMainLooper();
+    }
+
+    @AfterClass
+    public static void writeReport() throws IOException {
+        report.write();
+    }
+
+    /**
+     * Every entry is removed and replaced by a new one.
+     */
+    @Test
+    public void replaceAll() {
+        final List<List<RouterTransaction>> next = new ArrayList<>(1);
+
+        report.add(benchmark("replaceAll")
+                .setUp(() -> {
+                    next.clear();
+                    next.add(RouterBenchmarks.newBackstack(depth, "replacement"));
+                })
+                .run(() -> router.setBackstack(next.get(0), new SimpleSwapChangeHandler())));
+
+        assertEquals(depth, router.getBackstackSize());
+    }
+
+    /**
+     * Every entry is retained, but in reverse order, so almost all of them have moved.
+     */
+    @Test
+    public void reverse() {
+        final List<List<RouterTransaction>> next = new ArrayList<>(1);
+
+        report.add(benchmark("reverse")
+                .setUp(() -> {
+                    List<RouterTransaction> reversed = router.getBackstack();
+                    Collections.reverse(reversed);
+                    next.clear();
+                    next.add(reversed);
+                })
+                .run(() -> router.setBackstack(next.get(0), new SimpleSwapChangeHandler())));
+
+        assertEquals(depth, router.getBackstackSize());
+    }
+
+    /**
+     * Every entry is retained and a single new one is added on top.
+     */
+    @Test
+    public void pushOne() {
+        final List<List<RouterTransaction>> next = new ArrayList<>(1);
+
+        report.add(benchmark("pushOne")
+                .setUp(() -> {
+                    List<RouterTransaction> backstack = router.getBackstack();
+                    backstack.add(RouterTransaction.with(new BenchmarkController("pushed")));
+                    next.clear();
+                    next.add(backstack);
+                })
+                .tearDown(() -> router.popCurrentController())
+                .run(() -> router.setBackstack(next.get(0), new SimpleSwapChangeHandler())));
+
+        assertEquals(depth, router.getBackstackSize());
+    }
+
+    private Benchmark benchmark(String name) {
+        return Benchmark.named(name).param("depth", depth).perEntry(depth);
+    }
+
+}
@@ -11,7 +11,6 @@ import androidx.annotation.Nullable;
 import androidx.collection.ArrayMap;
 import androidx.core.app.SharedElementCallback;
 import androidx.core.view.ViewCompat;
-import androidx.core.view.ViewGroupCompat;
 import androidx.transition.Transition;
 import androidx.transition.TransitionSet;
 
@@ -37,6 +36,7 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
 
     @NonNull  final List<String> waitForTransitionNames = new ArrayList<>();
     @NonNull  final List<ViewParentPair> removedViews = new ArrayList<>();
+    boolean hidToWhileWaiting;
 
     @Nullable Transition exitTransition;
     @Nullable Transition enterTransition;
@@ -73,7 +73,7 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
         configureSharedElements(container, from, to, isPush);
 
         if (to != null && to.getParent() == null && waitForTransitionNames.size() > 0) {
-            waitOnAllTransitionNames(to, listener);
+            new TransitionNameWait(to, listener).start(getSharedElementWaitTimeout(isPush));
             container.addView(to);
         } else {
             listener.onPrepared();
@@ -82,8 +82,9 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
 
     @Override
     public final void executePropertyChanges(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, @Nullable Transition transition, boolean isPush) {
-        if (to != null && removedViews.size() > 0) {
+        if (to != null && (removedViews.size() > 0 || hidToWhileWaiting)) {
             to.setVisibility(View.VISIBLE);
+            hidToWhileWaiting = false;
 
             for (ViewParentPair removedView : removedViews) {
                 removedView.parent.addView(removedView.view);
@@ -100,17 +101,22 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
         super.onAbortPush(newHandler, newTop);
 
         removedViews.clear();
+        hidToWhileWaiting = false;
     }
 
     void configureTransition(@NonNull final ViewGroup container, @Nullable View from, @Nullable View to, @NonNull final Transition transition, boolean isPush) {
         final View nonExistentView = new View(container.getContext());
 
+        // Each hierarchy is walked at most once: "from" right away and "to" on the next pre-draw
+        ViewIndex fromIndex = from != null ? new ViewIndex(from) : null;
+        ViewIndex toIndex = to != null ? new ViewIndex(to) : null;
+
         List<View> fromSharedElements = new ArrayList<>();
         List<View> toSharedElements = new ArrayList<>();
 
-        configureSharedElements(container, nonExistentView, to, from, isPush, fromSharedElements, toSharedElements);
+        configureSharedElements(container, nonExistentView, toIndex, fromIndex, isPush, fromSharedElements, toSharedElements);
 
-        List<View> exitingViews = exitTransition != null ? configureEnteringExitingViews(exitTransition, from, fromSharedElements, nonExistentView) : null;
+        List<View> exitingViews = exitTransition != null ? configureEnteringExitingViews(exitTransition, fromIndex, fromSharedElements, nonExistentView) : null;
         if (exitingViews == null || exitingViews.isEmpty()) {
             exitTransition = null;
         }
@@ -121,70 +127,20 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
 
         final List<View> enteringViews = new ArrayList<>();
         scheduleRemoveTargets(transition, enterTransition, enteringViews, exitTransition, exitingViews, sharedElementTransition, toSharedElements);
-        scheduleTargetChange(container, to, nonExistentView, toSharedElements, enteringViews, exitingViews);
+        scheduleTargetChange(container, toIndex, nonExistentView, toSharedElements, enteringViews, exitingViews);
 
         setNameOverrides(container, toSharedElements);
         scheduleNameReset(container, toSharedElements);
     }
 
-    private void waitOnAllTransitionNames(@NonNull final View to, @NonNull final OnTransitionPreparedListener onTransitionPreparedListener) {
-        OnPreDrawListener onPreDrawListener = new OnPreDrawListener() {
-            boolean addedSubviewListeners;
-
-            @Override
-            public boolean onPreDraw() {
-                List<View> foundViews = new ArrayList<>();
-                boolean allViewsFound = true;
-                for (String transitionName : waitForTransitionNames) {
-                    View namedView = TransitionUtils.findNamedView(to, transitionName);
-                    if (namedView != null) {
-                        foundViews.add(TransitionUtils.findNamedView(to, transitionName));
-                    } else {
-                        allViewsFound = false;
-                        break;
-                    }
-                }
-
-                if (allViewsFound && !addedSubviewListeners) {
-                    addedSubviewListeners = true;
-                    waitOnChildTransitionNames(to, foundViews, this, onTransitionPreparedListener);
-                }
-
-                return false;
-            }
-        };
-
-        to.getViewTreeObserver().addOnPreDrawListener(onPreDrawListener);
-    }
-
-    void waitOnChildTransitionNames(@NonNull final View to, @NonNull List<View> foundViews, @NonNull final OnPreDrawListener parentPreDrawListener, @NonNull final OnTransitionPreparedListener onTransitionPreparedListener) {
-        for (final View view : foundViews) {
-            OneShotPreDrawListener.add(true, view, new Runnable() {
-                @Override
-                public void run() {
-                    waitForTransitionNames.remove(ViewCompat.getTransitionName(view));
-
-                    removedViews.add(new ViewParentPair(view, (ViewGroup)view.getParent()));
-                    ((ViewGroup)view.getParent()).removeView(view);
-
-                    if (waitForTransitionNames.size() == 0) {
-                        to.getViewTreeObserver().removeOnPreDrawListener(parentPreDrawListener);
-                        to.setVisibility(View.INVISIBLE);
-                        onTransitionPreparedListener.onPrepared();
-                    }
-                }
-            });
-        }
-    }
-
-    private void scheduleTargetChange(@NonNull final ViewGroup container, @Nullable final View to, @NonNull final View nonExistentView,
+    private void scheduleTargetChange(@NonNull final ViewGroup container, @Nullable final ViewIndex toIndex, @NonNull final View nonExistentView,
                                       @NonNull final List<View> toSharedElements, @NonNull final List<View> enteringViews, @Nullable final List<View> exitingViews) {
         OneShotPreDrawListener.add(true, container, new Runnable() {
             @Override
             public void run() {
                 if (enterTransition != null) {
                     enterTransition.removeTarget(nonExistentView);
-                    List<View> views = configureEnteringExitingViews(enterTransition, to, toSharedElements, nonExistentView);
+                    List<View> views = configureEnteringExitingViews(enterTransition, toIndex, toSharedElements, nonExistentView);
                     enteringViews.addAll(views);
                 }
 
@@ -212,10 +168,10 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
         }
     }
 
-    @NonNull List<View> configureEnteringExitingViews(@NonNull Transition transition, @Nullable View view, @NonNull List<View> sharedElements, @NonNull View nonExistentView) {
+    @NonNull List<View> configureEnteringExitingViews(@NonNull Transition transition, @Nullable ViewIndex viewIndex, @NonNull List<View> sharedElements, @NonNull View nonExistentView) {
         List<View> viewList = new ArrayList<>();
-        if (view != null) {
-            captureTransitioningViews(viewList, view);
+        if (viewIndex != null) {
+            viewList.addAll(viewIndex.getTransitioningViews());
         }
         viewList.removeAll(sharedElements);
         if (!viewList.isEmpty()) {
@@ -225,14 +181,14 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
         return viewList;
     }
 
-    private void configureSharedElements(@NonNull ViewGroup container, @NonNull final View nonExistentView, @Nullable final View to, @Nullable View from,
+    private void configureSharedElements(@NonNull ViewGroup container, @NonNull final View nonExistentView, @Nullable final ViewIndex toIndex, @Nullable ViewIndex fromIndex,
                                          final boolean isPush, @NonNull final List<View> fromSharedElements, @NonNull final List<View> toSharedElements) {
 
-        if (to == null || from == null) {
+        if (toIndex == null || fromIndex == null) {
             return;
         }
 
-        ArrayMap<String, View> capturedFromSharedElements = captureFromSharedElements(from);
+        ArrayMap<String, View> capturedFromSharedElements = captureFromSharedElements(fromIndex);
 
         if (sharedElementNames.isEmpty()) {
             sharedElementTransition = null;
@@ -269,7 +225,7 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
         OneShotPreDrawListener.add(true, container, new Runnable() {
             @Override
             public void run() {
-                ArrayMap<String, View> capturedToSharedElements = captureToSharedElements(to, isPush);
+                ArrayMap<String, View> capturedToSharedElements = captureToSharedElements(toIndex, isPush);
 
                 if (capturedToSharedElements != null) {
                     toSharedElements.addAll(capturedToSharedElements.values());
@@ -312,14 +268,13 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
         }
     }
 
-    @Nullable ArrayMap<String, View> captureToSharedElements(@Nullable final View to, boolean isPush) {
-        if (sharedElementNames.isEmpty() || sharedElementTransition == null || to == null) {
+    @Nullable ArrayMap<String, View> captureToSharedElements(@Nullable final ViewIndex toIndex, boolean isPush) {
+        if (sharedElementNames.isEmpty() || sharedElementTransition == null || toIndex == null) {
             sharedElementNames.clear();
             return null;
         }
 
-        final ArrayMap<String, View> toSharedElements = new ArrayMap<>();
-        TransitionUtils.findNamedViews(toSharedElements, to);
+        final ArrayMap<String, View> toSharedElements = new ArrayMap<>(toIndex.getVisibleNamedViews());
         for (ViewParentPair removedView : removedViews) {
             toSharedElements.put(ViewCompat.getTransitionName(removedView.view), removedView.view);
         }
@@ -366,14 +321,13 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
     }
 
     @Nullable
-    private ArrayMap<String, View> captureFromSharedElements(@NonNull View from) {
+    private ArrayMap<String, View> captureFromSharedElements(@NonNull ViewIndex fromIndex) {
         if (sharedElementNames.isEmpty() || sharedElementTransition == null) {
             sharedElementNames.clear();
             return null;
         }
 
-        final ArrayMap<String, View> fromSharedElements = new ArrayMap<>();
-        TransitionUtils.findNamedViews(fromSharedElements, from);
+        final ArrayMap<String, View> fromSharedElements = new ArrayMap<>(fromIndex.getVisibleNamedViews());
 
         final List<String> names = new ArrayList<>(sharedElementNames.keySet());
 
@@ -413,25 +367,6 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
         }
     }
 
-    private void captureTransitioningViews(@NonNull List<View> transitioningViews, @NonNull View view) {
-        if (view.getVisibility() == View.VISIBLE) {
-            if (view instanceof ViewGroup) {
-                ViewGroup viewGroup = (ViewGroup) view;
-                if (ViewGroupCompat.isTransitionGroup(viewGroup)) {
-                    transitioningViews.add(viewGroup);
-                } else {
-                    int count = viewGroup.getChildCount();
-                    for (int i = 0; i < count; i++) {
-                        View child = viewGroup.getChildAt(i);
-                        captureTransitioningViews(transitioningViews, child);
-                    }
-                }
-            } else {
-                transitioningViews.add(view);
-            }
-        }
-    }
-
     private void scheduleRemoveTargets(@NonNull final Transition overallTransition,
                                        @Nullable final Transition enterTransition, @Nullable final List<View> enteringViews,
                                        @Nullable final Transition exitTransition, @Nullable final List<View> exitingViews,
@@ -546,6 +481,15 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
         return true;
     }
 
+    /**
+     * Should return the longest time, in milliseconds, that the transition can be delayed waiting on elements passed to
+     * waitOnSharedElementNamed. Once it has passed, the transition will start without any that still haven't been found.
+     * Returning 0 or less will wait indefinitely. Defaults to 0.
+     */
+    public long getSharedElementWaitTimeout(boolean isPush) {
+        return 0;
+    }
+
     /**
      * Used to register an element that will take part in the shared element transition.
      *
@@ -583,8 +527,8 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
 
     /**
      * The transition will be delayed until the view with the name passed in is available in the "to" hierarchy. This is
-     * particularly useful for views that don't load instantly, like RecyclerViews. Note that using this method can
-     * potentially lock up your app indefinitely if the view never loads!
+     * particularly useful for views that don't load instantly, like RecyclerViews. If getSharedElementWaitTimeout
+     * returns a timeout and the view still hasn't loaded once it has passed, the transition will start without it.
      */
     protected final void waitOnSharedElementNamed(@NonNull String name) {
         if (!sharedElementNames.values().contains(name)) {
@@ -643,6 +587,142 @@ public abstract class SharedElementTransitionChangeHandler extends TransitionCha
 
     }
 
+    /**
+     * Holds the transition until every name in waitForTransitionNames has a view in the "to" hierarchy, or until the
+     * timeout runs out.
+     */
+    private final class TransitionNameWait implements OnPreDrawListener, Runnable {
+
+        @NonNull private final View to;
+        @NonNull private final ViewIndex toIndex;
+        @NonNull private final OnTransitionPreparedListener onTransitionPreparedListener;
+        private boolean addedSubviewListeners;
+        private boolean finished;
+
+        TransitionNameWait(@NonNull View to, @NonNull OnTransitionPreparedListener onTransitionPreparedListener) {
+            this.to = to;
+            this.onTransitionPreparedListener = onTransitionPreparedListener;
+            toIndex = new ViewIndex(to);
+        }
+
+        void start(long timeout) {
+            to.getViewTreeObserver().addOnPreDrawListener(this);
+            if (timeout > 0) {
+                to.postDelayed(this, timeout);
+            }
+        }
+
+        @Override
+        public boolean onPreDraw() {
+            if (!addedSubviewListeners) {
+                // A single walk per frame, no matter how many names are being waited on
+                toIndex.invalidate();
+                ArrayMap<String, View> namedViews = toIndex.getNamedViews();
+
+                List<View> foundViews = new ArrayList<>(waitForTransitionNames.size());
+                for (String transitionName : waitForTransitionNames) {
+                    View namedView = namedViews.get(transitionName);
+                    if (namedView == null) {
+                        return false;
+                    }
+                    foundViews.add(namedView);
+                }
+
+                addedSubviewListeners = true;
+                for (int i = 0; i < foundViews.size(); i++) {
+                    waitOnChild(foundViews.get(i), waitForTransitionNames.get(i));
+                }
+            }
+
+            return false;
+        }
+
+        private void waitOnChild(@NonNull final View view, @NonNull final String transitionName) {
+            OneShotPreDrawListener.add(true, view, new Runnable() {
+                @Override
+                public void run() {
+                    if (finished) {
+                        return;
+                    }
+
+                    waitForTransitionNames.remove(transitionName);
+
+                    removedViews.add(new ViewParentPair(view, (ViewGroup)view.getParent()));
+                    ((ViewGroup)view.getParent()).removeView(view);
+
+                    if (waitForTransitionNames.size() == 0) {
+                        finish();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void run() {
+            if (!finished) {
+                waitForTransitionNames.clear();
+                finish();
+            }
+        }
+
+        private void finish() {
+            finished = true;
+            to.getViewTreeObserver().removeOnPreDrawListener(this);
+            to.removeCallbacks(this);
+
+            to.setVisibility(View.INVISIBLE);
+            hidToWhileWaiting = true;
+            onTransitionPreparedListener.onPrepared();
+        }
+
+    }
+
+    /**
+     * The named and transitioning views of a hierarchy, found in a single walk the first time any of them are needed.
+     */
+    static class ViewIndex {
+
+        @NonNull private final View root;
+        @NonNull private final ArrayMap<String, View> namedViews = new ArrayMap<>();
+        @NonNull private final ArrayMap<String, View> visibleNamedViews = new ArrayMap<>();
+        @NonNull private final List<View> transitioningViews = new ArrayList<>();
+        private boolean indexed;
+
+        ViewIndex(@NonNull View root) {
+            this.root = root;
+        }
+
+        void invalidate() {
+            indexed = false;
+        }
+
+        @NonNull ArrayMap<String, View> getNamedViews() {
+            ensureIndexed();
+            return namedViews;
+        }
+
+        @NonNull ArrayMap<String, View> getVisibleNamedViews() {
+            ensureIndexed();
+            return visibleNamedViews;
+        }
+
+        @NonNull List<View> getTransitioningViews() {
+            ensureIndexed();
+            return transitioningViews;
+        }
+
+        private void ensureIndexed() {
+            if (!indexed) {
+                namedViews.clear();
+                visibleNamedViews.clear();
+                transitioningViews.clear();
+                TransitionUtils.indexViews(root, namedViews, visibleNamedViews, transitioningViews);
+                indexed = true;
+            }
+        }
+
+    }
+
     private static class ViewParentPair {
         @NonNull final View view;
         @NonNull final ViewGroup parent;
@@ -7,6 +7,7 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.view.ViewCompat;
+import androidx.core.view.ViewGroupCompat;
 import androidx.transition.Transition;
 import androidx.transition.TransitionSet;
 
@@ -53,6 +54,45 @@ public class TransitionUtils {
         return null;
     }
 
+    /**
+     * Walks the hierarchy once, collecting every named view the way {@link #findNamedView(View, String)} would find it,
+     * the named views {@link #findNamedViews(Map, View)} would collect and the views an entering or exiting transition
+     * would target.
+     */
+    public static void indexViews(@NonNull View view, @NonNull Map<String, View> namedViews, @NonNull Map<String, View> visibleNamedViews, @NonNull List<View> transitioningViews) {
+        indexViews(view, true, false, namedViews, visibleNamedViews, transitioningViews);
+    }
+
+    private static void indexViews(@NonNull View view, boolean visible, boolean inTransitionGroup, @NonNull Map<String, View> namedViews,
+                                   @NonNull Map<String, View> visibleNamedViews, @NonNull List<View> transitioningViews) {
+        visible = visible && view.getVisibility() == View.VISIBLE;
+
+        String transitionName = ViewCompat.getTransitionName(view);
+        if (transitionName != null) {
+            if (!namedViews.containsKey(transitionName)) {
+                namedViews.put(transitionName, view);
+            }
+            if (visible) {
+                visibleNamedViews.put(transitionName, view);
+            }
+        }
+
+        if (view instanceof ViewGroup) {
+            ViewGroup viewGroup = (ViewGroup) view;
+            boolean isTransitionGroup = visible && !inTransitionGroup && ViewGroupCompat.isTransitionGroup(viewGroup);
+            if (isTransitionGroup) {
+                transitioningViews.add(viewGroup);
+            }
+
+            int childCount = viewGroup.getChildCount();
+            for (int i = 0; i < childCount; i++) {
+                indexViews(viewGroup.getChildAt(i), visible, inTransitionGroup || isTransitionGroup, namedViews, visibleNamedViews, transitioningViews);
+            }
+        } else if (visible && !inTransitionGroup) {
+            transitioningViews.add(view);
+        }
+    }
+
     public static void setEpicenter(@NonNull Transition transition, @Nullable View view) {
         if (view != null) {
             final Rect epicenter = new Rect();
@@ -0,0 +1,158 @@
+package com.bluelinelabs.conductor.changehandler.androidxtransition;
+
+import android.app.Activity;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.transition.Fade;
+import androidx.transition.Transition;
+
+import com.bluelinelabs.conductor.changehandler.androidxtransition.SharedElementTransitionChangeHandler.ViewIndex;
+import com.bluelinelabs.conductor.changehandler.androidxtransition.TransitionChangeHandler.OnTransitionPreparedListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class SharedElementTransitionChangeHandlerTests {
+
+    private Activity activity;
+    private FrameLayout container;
+
+    @Before
+    public void setup() {
+        activity = Robolectric.buildActivity(Activity.class).setup().get();
+        container = new FrameLayout(activity);
+        activity.setContentView(container);
+    }
+
+    @Test
+    public void testViewIndex() {
+        FrameLayout root = new FrameLayout(activity);
+        View shared = namedView("shared");
+        View hidden = namedView("hidden");
+        hidden.setVisibility(View.INVISIBLE);
+        View unnamed = new View(activity);
+        root.addView(shared);
+        root.addView(hidden);
+        root.addView(unnamed);
+
+        ViewIndex index = new ViewIndex(root);
+
+        assertEquals(2, index.getNamedViews().size());
+        assertSame(shared, index.getNamedViews().get("shared"));
+        assertSame(hidden, index.getNamedViews().get("hidden"));
+        assertEquals(1, index.getVisibleNamedViews().size());
+        assertSame(shared, index.getVisibleNamedViews().get("shared"));
+        assertEquals(Arrays.asList(shared, unnamed), index.getTransitioningViews());
+
+        // The hierarchy is only walked again once the index is invalidated
+        View added = namedView("added");
+        root.addView(added);
+        assertNull(index.getNamedViews().get("added"));
+
+        index.invalidate();
+        assertSame(added, index.getNamedViews().get("added"));
+        assertEquals(Arrays.asList(shared, unnamed, added), index.getTransitioningViews());
+    }
+
+    @Test
+    public void testWaitsIndefinitelyByDefault() {
+        WaitingChangeHandler handler = new WaitingChangeHandler();
+        View to = new FrameLayout(activity);
+        RecordingPreparedListener listener = new RecordingPreparedListener();
+
+        handler.prepareForTransition(container, null, to, handler.getTransition(container, null, to, true), true, listener);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertFalse(listener.prepared);
+    }
+
+    @Test
+    public void testWaitTimesOut() {
+        WaitingChangeHandler handler = new TimingOutChangeHandler();
+        View to = new FrameLayout(activity);
+        RecordingPreparedListener listener = new RecordingPreparedListener();
+
+        handler.prepareForTransition(container, null, to, handler.getTransition(container, null, to, true), true, listener);
+        assertFalse(listener.prepared);
+
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        // The transition starts without the missing element, with the "to" view hidden until it does
+        assertTrue(listener.prepared);
+        assertEquals(View.INVISIBLE, to.getVisibility());
+
+        handler.executePropertyChanges(container, null, to, null, true);
+        assertEquals(View.VISIBLE, to.getVisibility());
+    }
+
+    private View namedView(@NonNull String transitionName) {
+        View view = new View(activity);
+        ViewCompat.setTransitionName(view, transitionName);
+        return view;
+    }
+
+    private static class RecordingPreparedListener implements OnTransitionPreparedListener {
+        boolean prepared;
+
+        @Override
+        public void onPrepared() {
+            prepared = true;
+        }
+    }
+
+    public static class WaitingChangeHandler extends SharedElementTransitionChangeHandler {
+
+        @Override
+        public void configureSharedElements(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush) {
+            addSharedElement("missing");
+            waitOnSharedElementNamed("missing");
+        }
+
+        @Nullable
+        @Override
+        public Transition getExitTransition(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush) {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Transition getSharedElementTransition(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush) {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Transition getEnterTransition(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush) {
+            return new Fade();
+        }
+
+    }
+
+    public static class TimingOutChangeHandler extends WaitingChangeHandler {
+        @Override
+        public long getSharedElementWaitTimeout(boolean isPush) {
+            return 100;
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.bluelinelabs.conductor;
+
+import android.app.Activity;
+
+import androidx.annotation.NonNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The {@link Controller}s of a root {@link Router} and all of its child Routers that need to hear about the host
+ * Activity being started, resumed, paused or stopped, so those can be dispatched without visiting every Controller
+ * in the hierarchy. A Controller is registered while it has a view, or for as long as it's in a Router if its class
+ * overrides one of the Activity lifecycle callbacks. Callbacks are dispatched in the same order a walk of the
+ * hierarchy would visit them.
+ */
+final class ActivityCallbackRegistry {
+
+    private static final Controller[] NO_CONTROLLERS = new Controller[0];
+
+    // Classes never unload while the process is alive, so each one only has to be inspected once
+    private static final Map<Class<?>, Boolean> overridesCallbacksCache = new HashMap<>();
+
+    // Names of the callbacks as they were compiled, which may not match the source if the app has been obfuscated
+    private static Set<String> callbackNames;
+
+    private final Set<Controller> controllers = new LinkedHashSet<>();
+
+    // Sorted copy-on-write snapshot so that Controllers can register or unregister while callbacks are being dispatched
+    private Controller[] snapshot = NO_CONTROLLERS;
+
+    void add(@NonNull Controller controller) {
+        if (controllers.add(controller)) {
+            snapshot = null;
+        }
+    }
+
+    void remove(@NonNull Controller controller) {
+        if (controllers.remove(controller)) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Called when a backstack in the hierarchy changed, since that may have changed the order of the registered
+     * Controllers without adding or removing any.
+     */
+    void invalidateOrder() {
+        snapshot = null;
+    }
+
+    @NonNull
+    Controller[] getControllers() {
+        if (snapshot == null) {
+            Controller[] sorted = controllers.toArray(new Controller[controllers.size()]);
+            ControllerHierarchyOrder.sort(sorted);
+            snapshot = sorted;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns true if the passed class, or any of its superclasses below {@link Controller}, overrides
+     * onActivityStarted, onActivityResumed, onActivityPaused or onActivityStopped.
+     */
+    static boolean overridesActivityCallbacks(@NonNull Class<? extends Controller> controllerClass) {
+        Boolean cached = overridesCallbacksCache.get(controllerClass);
+        if (cached != null) {
+            return cached;
+        }
+
+        boolean overrides = false;
+        for (Class<?> cls = controllerClass; cls != Controller.class && cls != null && !overrides; cls = cls.getSuperclass()) {
+            overrides = declaresActivityCallback(cls);
+        }
+
+        overridesCallbacksCache.put(controllerClass, overrides);
+        return overrides;
+    }
+
+    private static boolean declaresActivityCallback(@NonNull Class<?> cls) {
+        Method[] methods;
+        try {
+            methods = cls.getDeclaredMethods();
+        } catch (NoClassDefFoundError e) {
+            // Some of the class's methods reference classes that aren't available, so assume the worst
+            return true;
+        }
+
+        for (Method method : methods) {
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            if (parameterTypes.length == 1 && parameterTypes[0] == Activity.class && getCallbackNames().contains(method.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The overridable Controller methods that take only an Activity are exactly its Activity lifecycle callbacks.
+     */
+    @NonNull
+    private static Set<String> getCallbackNames() {
+        if (callbackNames == null) {
+            Set<String> names = new HashSet<>();
+            for (Method method : Controller.class.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                Class<?>[] parameterTypes = method.getParameterTypes();
+                if (!Modifier.isFinal(modifiers) && !Modifier.isPrivate(modifiers) && !Modifier.isStatic(modifiers)
+                        && parameterTypes.length == 1 && parameterTypes[0] == Activity.class) {
+                    names.add(method.getName());
+                }
+            }
+            callbackNames = names;
+        }
+        return callbackNames;
+    }
+
+}
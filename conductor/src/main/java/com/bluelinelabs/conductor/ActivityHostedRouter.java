@@ -19,6 +19,7 @@ public class ActivityHostedRouter extends Router {
 
     private LifecycleHandler lifecycleHandler;
     private final TransactionIndexer transactionIndexer = new TransactionIndexer();
+    private final RouterHierarchyState hierarchyState = new RouterHierarchyState();
 
     public final void setHost(@NonNull LifecycleHandler lifecycleHandler, @NonNull ViewGroup container) {
         if (this.lifecycleHandler != lifecycleHandler || this.container != container) {
@@ -60,6 +61,10 @@ public class ActivityHostedRouter extends Router {
     public void onActivityDestroyed(@NonNull Activity activity, boolean isConfigurationChange) {
         super.onActivityDestroyed(activity, isConfigurationChange);
 
+        // Pooled views and running change handlers belong to the destroyed activity
+        hierarchyState.viewPool.clear();
+        hierarchyState.inProgressChangeHandlers.clear();
+
         if (!isConfigurationChange) {
             lifecycleHandler = null;
         }
@@ -120,7 +125,7 @@ public class ActivityHostedRouter extends Router {
 
     @Override @NonNull
     List<Router> getSiblingRouters() {
-        return lifecycleHandler.getRouters();
+        return lifecycleHandler.getRouterSnapshot();
     }
 
     @Override @NonNull
@@ -133,6 +138,11 @@ public class ActivityHostedRouter extends Router {
         return transactionIndexer;
     }
 
+    @Override @NonNull
+    RouterHierarchyState getHierarchyState() {
+        return hierarchyState;
+    }
+
     @Override
     public void onContextAvailable() {
         super.onContextAvailable();
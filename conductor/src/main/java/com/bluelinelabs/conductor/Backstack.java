@@ -1,6 +1,7 @@
 package com.bluelinelabs.conductor;
 
 import android.os.Bundle;
+import android.os.Parcel;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -9,15 +10,29 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-class Backstack implements Iterable<RouterTransaction> {
+class Backstack implements Iterable<RouterTransaction>, RouterTransaction.OnHydratedListener {
 
     private static final String KEY_ENTRIES = "Backstack.entries";
 
     private final Deque<RouterTransaction> backstack = new ArrayDeque<>();
 
+    // Tags are not required to be unique, so each tag maps to its transactions ordered from root to top.
+    private final Map<String, List<RouterTransaction>> tagIndex = new HashMap<>();
+    private final Map<String, RouterTransaction> instanceIdIndex = new HashMap<>();
+
+    @Nullable private OnBackstackChangedListener changeListener;
+
+    void setOnBackstackChangedListener(@Nullable OnBackstackChangedListener changeListener) {
+        this.changeListener = changeListener;
+    }
+
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     boolean isEmpty() {
         return backstack.isEmpty();
@@ -34,18 +49,18 @@ class Backstack implements Iterable<RouterTransaction> {
 
     @Override @NonNull
     public Iterator<RouterTransaction> iterator() {
-        return backstack.iterator();
+        return new IndexedIterator(backstack.iterator());
     }
 
     @NonNull
     Iterator<RouterTransaction> reverseIterator() {
-        return backstack.descendingIterator();
+        return new IndexedIterator(backstack.descendingIterator());
     }
 
     @NonNull
     List<RouterTransaction> popTo(@NonNull RouterTransaction transaction) {
         List<RouterTransaction> popped = new ArrayList<>();
-        if (backstack.contains(transaction)) {
+        if (contains(transaction)) {
             while (backstack.peek() != transaction) {
                 RouterTransaction poppedTransaction = pop();
                 popped.add(poppedTransaction);
@@ -59,7 +74,14 @@ class Backstack implements Iterable<RouterTransaction> {
     @NonNull
     RouterTransaction pop() {
         RouterTransaction popped = backstack.pop();
-        popped.controller().destroy();
+        removeFromIndex(popped);
+        notifyChanged();
+
+        // Controllers that were never restored have nothing to tear down
+        if (popped.isHydrated()) {
+            popped.controller().destroy();
+        }
+        popped.deleteStoredState();
         return popped;
     }
 
@@ -70,6 +92,20 @@ class Backstack implements Iterable<RouterTransaction> {
 
     void push(@NonNull RouterTransaction transaction) {
         backstack.push(transaction);
+        addToIndex(transaction, true);
+        notifyChanged();
+    }
+
+    /**
+     * Removes the passed transaction from anywhere in the backstack without destroying its controller.
+     */
+    boolean remove(@NonNull RouterTransaction transaction) {
+        if (contains(transaction) && backstack.removeFirstOccurrence(transaction)) {
+            removeFromIndex(transaction);
+            notifyChanged();
+            return true;
+        }
+        return false;
     }
 
     @NonNull
@@ -82,28 +118,109 @@ class Backstack implements Iterable<RouterTransaction> {
     }
 
     void setBackstack(@NonNull List<RouterTransaction> backstack) {
+        Set<RouterTransaction> retained = Collections.newSetFromMap(new IdentityHashMap<RouterTransaction, Boolean>());
+        retained.addAll(backstack);
+
+        List<RouterTransaction> oldTransactions = new ArrayList<>(this.backstack);
         this.backstack.clear();
+        tagIndex.clear();
+        instanceIdIndex.clear();
+
+        // Only transactions that are actually leaving or arriving are reported, so the listener's work scales with the
+        // size of the change rather than the size of the backstack
+        for (RouterTransaction transaction : oldTransactions) {
+            if (transaction.getOnHydratedListener() == this) {
+                transaction.setOnHydratedListener(null);
+            }
+            if (!retained.contains(transaction) && changeListener != null) {
+                changeListener.onTransactionRemoved(transaction);
+            }
+        }
+
+        retained.clear();
+        retained.addAll(oldTransactions);
         for (RouterTransaction transaction : backstack) {
             this.backstack.push(transaction);
+            addToIndex(transaction, !retained.contains(transaction));
         }
+        notifyChanged();
     }
 
     boolean contains(@NonNull Controller controller) {
-        for (RouterTransaction transaction : backstack) {
-            if (controller == transaction.controller()) {
-                return true;
-            }
-        }
-        return false;
+        RouterTransaction transaction = instanceIdIndex.get(controller.getInstanceId());
+        return transaction != null && transaction.isHydrated() && transaction.controller() == controller;
+    }
+
+    boolean contains(@NonNull RouterTransaction transaction) {
+        return instanceIdIndex.get(transaction.instanceId()) == transaction;
+    }
+
+    /**
+     * Returns the top-most transaction with the passed tag, or {@code null} if there is none.
+     */
+    @Nullable
+    RouterTransaction getTransactionWithTag(@NonNull String tag) {
+        List<RouterTransaction> transactions = tagIndex.get(tag);
+        return transactions != null ? transactions.get(transactions.size() - 1) : null;
+    }
+
+    /**
+     * Returns the controller in this backstack with the passed instance id, or {@code null} if there is none.
+     * Child routers are not searched. The controller will be restored if it hasn't been yet.
+     */
+    @Nullable
+    Controller getControllerWithInstanceId(@NonNull String instanceId) {
+        RouterTransaction transaction = instanceIdIndex.get(instanceId);
+        return transaction != null ? transaction.controller() : null;
     }
 
-    void saveInstanceState(@NonNull Bundle outState) {
+    /**
+     * Saves every entry into the passed Bundle. Returns true if all of their saved states will be reused by the next
+     * save, in which case so can the Bundle.
+     */
+    boolean saveInstanceState(@NonNull Bundle outState) {
+        RouterStateStore store = Conductor.getRouterStateStore();
+        boolean measureSize = store != null && store.getMaxInlineBytes() < Integer.MAX_VALUE;
+        boolean spilling = false;
+        int inlineBytes = 0;
+        int depth = 0;
+        boolean reusable = true;
+
         ArrayList<Bundle> entryBundles = new ArrayList<>(backstack.size());
         for (RouterTransaction entry : backstack) {
-            entryBundles.add(entry.saveInstanceState());
+            Bundle entryBundle = entry.saveInstanceState();
+            reusable = reusable && entry.hasReusableSavedState();
+
+            // Entries are saved from the top down, so once one is too deep or over budget so is everything below it.
+            // The top entry always stays in the Bundle.
+            if (store != null && !spilling) {
+                if (depth > 0 && depth >= store.getMaxInlineDepth()) {
+                    spilling = true;
+                } else if (measureSize) {
+                    inlineBytes += getSize(entryBundle);
+                    spilling = depth > 0 && inlineBytes > store.getMaxInlineBytes();
+                }
+            }
+            if (spilling) {
+                entry.writeStoredState(entryBundle, store);
+            }
+
+            entryBundles.add(entryBundle);
+            depth++;
         }
 
         outState.putParcelableArrayList(KEY_ENTRIES, entryBundles);
+        return reusable;
+    }
+
+    private static int getSize(@NonNull Bundle bundle) {
+        Parcel parcel = Parcel.obtain();
+        try {
+            parcel.writeBundle(bundle);
+            return parcel.dataSize();
+        } finally {
+            parcel.recycle();
+        }
     }
 
     void restoreInstanceState(@NonNull Bundle savedInstanceState) {
@@ -111,8 +228,118 @@ class Backstack implements Iterable<RouterTransaction> {
         if (entryBundles != null) {
             Collections.reverse(entryBundles);
             for (Bundle transactionBundle : entryBundles) {
-                backstack.push(new RouterTransaction(transactionBundle));
+                // Controllers are only restored once they're needed, so deep backstacks restore quickly
+                RouterTransaction transaction = new RouterTransaction(transactionBundle);
+                backstack.push(transaction);
+                addToIndex(transaction, true);
             }
+            notifyChanged();
+        }
+    }
+
+    @Override
+    public void onHydrated(@NonNull RouterTransaction transaction) {
+        if (changeListener != null) {
+            changeListener.onTransactionHydrated(transaction);
+        }
+    }
+
+    @Override
+    public void onUnhydratedStateChanged(@NonNull RouterTransaction transaction) {
+        // The entry's saved state is part of this backstack's, so it has to be saved again
+        notifyChanged();
+    }
+
+    private void addToIndex(@NonNull RouterTransaction transaction, boolean notify) {
+        instanceIdIndex.put(transaction.instanceId(), transaction);
+        if (!transaction.isHydrated()) {
+            transaction.setOnHydratedListener(this);
+        }
+        if (notify && changeListener != null) {
+            changeListener.onTransactionAdded(transaction);
+        }
+
+        String tag = transaction.tag();
+        if (tag != null) {
+            List<RouterTransaction> transactions = tagIndex.get(tag);
+            if (transactions == null) {
+                transactions = new ArrayList<>(1);
+                tagIndex.put(tag, transactions);
+            }
+            transactions.add(transaction);
+        }
+    }
+
+    private void removeFromIndex(@NonNull RouterTransaction transaction) {
+        String instanceId = transaction.instanceId();
+        if (instanceIdIndex.get(instanceId) == transaction) {
+            instanceIdIndex.remove(instanceId);
+        }
+        if (transaction.getOnHydratedListener() == this) {
+            transaction.setOnHydratedListener(null);
+        }
+        if (changeListener != null) {
+            changeListener.onTransactionRemoved(transaction);
+        }
+
+        String tag = transaction.tag();
+        if (tag != null) {
+            List<RouterTransaction> transactions = tagIndex.get(tag);
+            if (transactions != null) {
+                // Popped transactions are almost always the last entry, so search from the end
+                for (int i = transactions.size() - 1; i >= 0; i--) {
+                    if (transactions.get(i) == transaction) {
+                        transactions.remove(i);
+                        break;
+                    }
+                }
+                if (transactions.isEmpty()) {
+                    tagIndex.remove(tag);
+                }
+            }
+        }
+    }
+
+    private void notifyChanged() {
+        if (changeListener != null) {
+            changeListener.onBackstackChanged();
+        }
+    }
+
+    interface OnBackstackChangedListener {
+        void onBackstackChanged();
+        void onTransactionAdded(@NonNull RouterTransaction transaction);
+        void onTransactionRemoved(@NonNull RouterTransaction transaction);
+        void onTransactionHydrated(@NonNull RouterTransaction transaction);
+    }
+
+    /**
+     * Keeps the indices in step when transactions are removed while iterating.
+     */
+    private class IndexedIterator implements Iterator<RouterTransaction> {
+        private final Iterator<RouterTransaction> iterator;
+        private RouterTransaction current;
+
+        IndexedIterator(@NonNull Iterator<RouterTransaction> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public RouterTransaction next() {
+            current = iterator.next();
+            return current;
+        }
+
+        @Override
+        public void remove() {
+            iterator.remove();
+            removeFromIndex(current);
+            notifyChanged();
         }
     }
 }
@@ -0,0 +1,173 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The change plan used when a {@link Router}'s backstack is replaced. All membership checks are done with
+ * hashing, so calculating a plan is linear in the size of the old and new backstacks. Controllers are matched
+ * by instance id so that transactions which haven't restored their controllers yet don't have to.
+ */
+final class BackstackDiff {
+
+    /** Transactions whose controllers are no longer on the backstack, ordered from root to top of the old backstack. */
+    @NonNull final List<RouterTransaction> removed;
+
+    /** Transactions whose controllers were already on the backstack, ordered from root to top of the new backstack. */
+    @NonNull final List<RouterTransaction> retained;
+
+    /** Retained transactions that are now out of order relative to the retained transactions beneath them. */
+    @NonNull final List<RouterTransaction> moved;
+
+    /** Transactions that are visible on the new backstack but were not visible on the old one, ordered from root to top. */
+    @NonNull final List<RouterTransaction> newlyVisible;
+
+    /** Transactions that were visible on the old backstack but are not visible on the new one, ordered from top to root. */
+    @NonNull final List<RouterTransaction> noLongerVisible;
+
+    @NonNull final List<RouterTransaction> oldVisible;
+    @NonNull final List<RouterTransaction> newVisible;
+
+    private final Set<RouterTransaction> oldTransactionSet;
+
+    // Position of each transaction in the new visible list, so the one it's pushed on top of can be found directly
+    private final Map<RouterTransaction, Integer> newVisibleIndices;
+
+    private BackstackDiff(@NonNull List<RouterTransaction> removed, @NonNull List<RouterTransaction> retained, @NonNull List<RouterTransaction> moved,
+                          @NonNull List<RouterTransaction> newlyVisible, @NonNull List<RouterTransaction> noLongerVisible,
+                          @NonNull List<RouterTransaction> oldVisible, @NonNull List<RouterTransaction> newVisible,
+                          @NonNull Set<RouterTransaction> oldTransactionSet, @NonNull Map<RouterTransaction, Integer> newVisibleIndices) {
+        this.removed = removed;
+        this.retained = retained;
+        this.moved = moved;
+        this.newlyVisible = newlyVisible;
+        this.noLongerVisible = noLongerVisible;
+        this.oldVisible = oldVisible;
+        this.newVisible = newVisible;
+        this.oldTransactionSet = oldTransactionSet;
+        this.newVisibleIndices = newVisibleIndices;
+    }
+
+    /**
+     * Calculates the plan for moving from one backstack to another. All passed lists are ordered from root to top.
+     *
+     * @throws IllegalStateException if the new backstack contains the same controller more than once
+     */
+    @NonNull
+    static BackstackDiff calculate(@NonNull List<RouterTransaction> oldBackstack, @NonNull List<RouterTransaction> oldVisible,
+                                   @NonNull List<RouterTransaction> newBackstack, @NonNull List<RouterTransaction> newVisible) {
+        Map<String, Integer> oldIndices = new HashMap<>(oldBackstack.size());
+        Set<RouterTransaction> oldTransactionSet = newIdentitySet(oldBackstack.size());
+        for (int i = 0; i < oldBackstack.size(); i++) {
+            RouterTransaction transaction = oldBackstack.get(i);
+            oldIndices.put(transaction.instanceId(), i);
+            oldTransactionSet.add(transaction);
+        }
+
+        Set<String> newControllers = new HashSet<>(newBackstack.size());
+        List<RouterTransaction> retained = new ArrayList<>();
+        List<RouterTransaction> moved = new ArrayList<>();
+        int highestRetainedIndex = -1;
+        for (RouterTransaction transaction : newBackstack) {
+            if (!newControllers.add(transaction.instanceId())) {
+                throw new IllegalStateException("Trying to push the same controller to the backstack more than once.");
+            }
+
+            Integer oldIndex = oldIndices.get(transaction.instanceId());
+            if (oldIndex != null) {
+                retained.add(transaction);
+                if (oldIndex < highestRetainedIndex) {
+                    moved.add(transaction);
+                } else {
+                    highestRetainedIndex = oldIndex;
+                }
+            }
+        }
+
+        List<RouterTransaction> removed = new ArrayList<>();
+        for (RouterTransaction transaction : oldBackstack) {
+            if (!newControllers.contains(transaction.instanceId())) {
+                removed.add(transaction);
+            }
+        }
+
+        Set<RouterTransaction> oldVisibleSet = newIdentitySet(oldVisible.size());
+        oldVisibleSet.addAll(oldVisible);
+
+        Map<RouterTransaction, Integer> newVisibleIndices = new IdentityHashMap<>(newVisible.size());
+        List<RouterTransaction> newlyVisible = new ArrayList<>();
+        for (int i = 0; i < newVisible.size(); i++) {
+            RouterTransaction transaction = newVisible.get(i);
+            newVisibleIndices.put(transaction, i);
+            if (!oldVisibleSet.contains(transaction)) {
+                newlyVisible.add(transaction);
+            }
+        }
+
+        List<RouterTransaction> noLongerVisible = new ArrayList<>();
+        for (int i = oldVisible.size() - 1; i >= 0; i--) {
+            RouterTransaction transaction = oldVisible.get(i);
+            if (!newVisibleIndices.containsKey(transaction)) {
+                noLongerVisible.add(transaction);
+            }
+        }
+
+        return new BackstackDiff(removed, retained, moved, newlyVisible, noLongerVisible, oldVisible, newVisible, oldTransactionSet, newVisibleIndices);
+    }
+
+    /**
+     * Returns whether or not the passed transaction was on the old backstack.
+     */
+    boolean wasOnBackstack(@NonNull RouterTransaction transaction) {
+        return oldTransactionSet.contains(transaction);
+    }
+
+    /**
+     * Returns the transaction directly beneath the passed one in the new visible list, or {@code null} if it's the
+     * bottom-most visible transaction or not visible at all.
+     */
+    @Nullable
+    RouterTransaction visibleBelow(@NonNull RouterTransaction transaction) {
+        Integer index = newVisibleIndices.get(transaction);
+        return index != null && index > 0 ? newVisible.get(index - 1) : null;
+    }
+
+    /**
+     * Returns whether or not the bottom-most visible transaction of the new backstack has to be pushed rather than popped to.
+     */
+    boolean newRootRequiresPush() {
+        return !(newVisible.size() > 0 && wasOnBackstack(newVisible.get(0)));
+    }
+
+    /**
+     * Returns whether or not the visible controllers differ between the old and new backstacks.
+     */
+    boolean visibleTransactionsChanged() {
+        if (oldVisible.size() != newVisible.size()) {
+            return true;
+        }
+
+        for (int i = 0; i < newVisible.size(); i++) {
+            if (!newVisible.get(i).instanceId().equals(oldVisible.get(i).instanceId())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @NonNull
+    private static Set<RouterTransaction> newIdentitySet(int expectedSize) {
+        return Collections.newSetFromMap(new IdentityHashMap<RouterTransaction, Boolean>(expectedSize));
+    }
+
+}
@@ -3,6 +3,9 @@ package com.bluelinelabs.conductor
 import android.annotation.TargetApi
 import android.content.Context
 import android.os.Build
+import android.os.Handler
+import android.os.Looper
+import android.os.SystemClock
 import android.util.AttributeSet
 import android.view.MotionEvent
 import android.view.ViewGroup
@@ -16,8 +19,27 @@ import com.bluelinelabs.conductor.ControllerChangeHandler.ControllerChangeListen
  */
 open class ChangeHandlerFrameLayout : FrameLayout, ControllerChangeListener {
 
+  /**
+   * Whether touches that begin while a change is in progress should be held and replayed once every
+   * change has completed, reaching whatever views are on top by then, rather than being dropped.
+   * Defaults to false.
+   */
+  var buffersTouchesDuringChanges = false
+
+  /**
+   * How long, in milliseconds, after it began a held touch can still be replayed. Touches that are
+   * older than this by the time the changes complete are dropped.
+   */
+  var bufferedTouchTimeout = DEFAULT_BUFFERED_TOUCH_TIMEOUT
+
   private var inProgressTransactionCount = 0
 
+  private val mainHandler = Handler(Looper.getMainLooper())
+  private val bufferedEvents = mutableListOf<MotionEvent>()
+  private var isBufferingStream = false
+  private var isReplayPending = false
+  private val replayBufferedEventsRunnable = Runnable { replayBufferedEvents() }
+
   constructor(context: Context) : super(context)
   constructor(context: Context, attrs: AttributeSet?) : super(context, attrs)
   constructor(context: Context, attrs: AttributeSet?, defStyleAttr: Int) : super(
@@ -38,6 +60,33 @@ open class ChangeHandlerFrameLayout : FrameLayout, ControllerChangeListener {
     return inProgressTransactionCount > 0 || super.onInterceptTouchEvent(ev)
   }
 
+  override fun onTouchEvent(event: MotionEvent): Boolean {
+    if (buffersTouchesDuringChanges) {
+      if (event.actionMasked == MotionEvent.ACTION_DOWN) {
+        isBufferingStream = inProgressTransactionCount > 0
+      }
+
+      if (isBufferingStream) {
+        bufferedEvents.add(MotionEvent.obtain(event))
+        if (event.actionMasked == MotionEvent.ACTION_UP || event.actionMasked == MotionEvent.ACTION_CANCEL) {
+          isBufferingStream = false
+        }
+        return true
+      }
+    }
+
+    return super.onTouchEvent(event)
+  }
+
+  override fun onDetachedFromWindow() {
+    super.onDetachedFromWindow()
+
+    mainHandler.removeCallbacks(replayBufferedEventsRunnable)
+    isReplayPending = false
+    isBufferingStream = false
+    clearBufferedEvents()
+  }
+
   override fun onChangeStarted(
     to: Controller?,
     from: Controller?,
@@ -56,5 +105,41 @@ open class ChangeHandlerFrameLayout : FrameLayout, ControllerChangeListener {
     handler: ControllerChangeHandler
   ) {
     inProgressTransactionCount--
+
+    if (inProgressTransactionCount == 0 && bufferedEvents.isNotEmpty() && !isReplayPending) {
+      // Replayed once the completing change has fully unwound rather than from within it
+      isReplayPending = true
+      mainHandler.post(replayBufferedEventsRunnable)
+    }
+  }
+
+  private fun replayBufferedEvents() {
+    isReplayPending = false
+    if (inProgressTransactionCount > 0) {
+      // Another change has started since, so these will be replayed once it has completed too
+      return
+    }
+
+    // A touch that's still going will continue straight to whichever view receives its replayed events
+    isBufferingStream = false
+    val events = bufferedEvents.toList()
+    bufferedEvents.clear()
+
+    val now = SystemClock.uptimeMillis()
+    events.forEach { event ->
+      if (now - event.downTime <= bufferedTouchTimeout) {
+        dispatchTouchEvent(event)
+      }
+      event.recycle()
+    }
+  }
+
+  private fun clearBufferedEvents() {
+    bufferedEvents.forEach { it.recycle() }
+    bufferedEvents.clear()
+  }
+
+  companion object {
+    const val DEFAULT_BUFFERED_TOUCH_TIMEOUT = 500L
   }
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.bluelinelabs.conductor;
+
+import android.content.Context;
+import android.view.Choreographer;
+import android.view.Display;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Timings of a single change performed by a {@link Router}, as reported to {@link ConductorMetrics}. All durations
+ * are in nanoseconds.
+ */
+public final class ChangeMetrics {
+
+    private static final long DEFAULT_FRAME_INTERVAL_NANOS = 1_000_000_000L / 60;
+
+    // Frames stop being counted after this long in case a change handler never reports that it completed
+    private static final long MAX_FRAME_COUNTING_NANOS = 10_000_000_000L;
+
+    @Nullable private final Class<? extends Controller> toControllerClass;
+    @Nullable private final Class<? extends Controller> fromControllerClass;
+    private final boolean isPush;
+    @NonNull private final List<ConductorMetrics> listeners;
+
+    private Class<? extends ControllerChangeHandler> changeHandlerClass;
+    private final long queuedAt;
+    private long executedAt;
+    private long queuedNanos;
+    private long createViewNanos;
+    private long restoreViewStateNanos;
+    private long changeNanos;
+    private int droppedFrames;
+    private FrameCounter frameCounter;
+
+    ChangeMetrics(@Nullable Controller to, @Nullable Controller from, boolean isPush, @NonNull List<ConductorMetrics> listeners) {
+        this.toControllerClass = to != null ? to.getClass() : null;
+        this.fromControllerClass = from != null ? from.getClass() : null;
+        this.isPush = isPush;
+        this.listeners = listeners;
+        queuedAt = System.nanoTime();
+    }
+
+    /**
+     * Returns the class of the Controller being changed to, or null if there wasn't one.
+     */
+    @Nullable
+    public Class<? extends Controller> getToControllerClass() {
+        return toControllerClass;
+    }
+
+    /**
+     * Returns the class of the Controller being changed from, or null if there wasn't one.
+     */
+    @Nullable
+    public Class<? extends Controller> getFromControllerClass() {
+        return fromControllerClass;
+    }
+
+    /**
+     * Returns whether this change was a push rather than a pop.
+     */
+    public boolean isPush() {
+        return isPush;
+    }
+
+    /**
+     * Returns the class of the {@link ControllerChangeHandler} that performed the change.
+     */
+    @NonNull
+    public Class<? extends ControllerChangeHandler> getChangeHandlerClass() {
+        return changeHandlerClass;
+    }
+
+    /**
+     * Returns how long the change waited before it was executed, which is usually spent waiting for the Router's
+     * container to be fully attached.
+     */
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    /**
+     * Returns how long it took to get the new Controller's view, including the time spent in onCreateView. This is
+     * 0 if the Controller already had a view.
+     */
+    public long getCreateViewNanos() {
+        return createViewNanos;
+    }
+
+    /**
+     * Returns how long it took to restore the new Controller's saved view state, if it had any.
+     */
+    public long getRestoreViewStateNanos() {
+        return restoreViewStateNanos;
+    }
+
+    /**
+     * Returns the time between the change being executed and its change handler completing, which includes
+     * creating the view and running any animation or transition.
+     */
+    public long getChangeNanos() {
+        return changeNanos;
+    }
+
+    /**
+     * Returns the total time from the change being requested until it completed.
+     */
+    public long getTotalNanos() {
+        return queuedNanos + changeNanos;
+    }
+
+    /**
+     * Returns the number of frames that were skipped while the change was running, based on the display's refresh rate.
+     */
+    public int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    void onExecute(@NonNull ControllerChangeHandler changeHandler, @NonNull ViewGroup container) {
+        changeHandlerClass = changeHandler.getClass();
+        executedAt = System.nanoTime();
+        queuedNanos = executedAt - queuedAt;
+
+        frameCounter = new FrameCounter(frameIntervalNanos(container.getContext()), executedAt);
+        frameCounter.start();
+    }
+
+    void onViewCreated(long createViewNanos, long restoreViewStateNanos) {
+        this.createViewNanos = createViewNanos;
+        this.restoreViewStateNanos = restoreViewStateNanos;
+    }
+
+    void onCompleted() {
+        changeNanos = System.nanoTime() - executedAt;
+
+        if (frameCounter != null) {
+            droppedFrames = frameCounter.stop();
+            frameCounter = null;
+        }
+
+        for (ConductorMetrics listener : listeners) {
+            listener.onChangeMeasured(this);
+        }
+    }
+
+    private static long frameIntervalNanos(@NonNull Context context) {
+        WindowManager windowManager = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
+        Display display = windowManager != null ? windowManager.getDefaultDisplay() : null;
+        float refreshRate = display != null ? display.getRefreshRate() : 0;
+        return refreshRate >= 1 ? (long) (1_000_000_000L / refreshRate) : DEFAULT_FRAME_INTERVAL_NANOS;
+    }
+
+    /**
+     * Counts frames that were skipped between the start of the change and the first Choreographer callback, and
+     * between each consecutive callback after that. The Choreographer's frame times use the same clock as
+     * {@link System#nanoTime()}.
+     */
+    private static final class FrameCounter implements Choreographer.FrameCallback {
+        private final long frameIntervalNanos;
+        private long firstFrameTimeNanos;
+        private long lastFrameTimeNanos;
+        private int droppedFrames;
+        private boolean running;
+
+        FrameCounter(long frameIntervalNanos, long startNanos) {
+            this.frameIntervalNanos = frameIntervalNanos;
+
+            // Seeded with the start of the change so a long first frame, usually the most expensive one, is counted
+            lastFrameTimeNanos = startNanos;
+        }
+
+        void start() {
+            running = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        int stop() {
+            running = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+            return droppedFrames;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!running) {
+                return;
+            }
+
+            if (firstFrameTimeNanos == 0) {
+                firstFrameTimeNanos = frameTimeNanos;
+            } else if (frameTimeNanos - firstFrameTimeNanos > MAX_FRAME_COUNTING_NANOS) {
+                running = false;
+                return;
+            }
+
+            // Allow half a frame of jitter before counting a frame as dropped
+            long skipped = (frameTimeNanos - lastFrameTimeNanos + frameIntervalNanos / 2) / frameIntervalNanos - 1;
+            if (skipped > 0) {
+                droppedFrames += skipped;
+            }
+            lastFrameTimeNanos = frameTimeNanos;
+
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+}
@@ -19,10 +19,79 @@ import com.bluelinelabs.conductor.internal.ensureMainThread
  */
 @UiThread
 object Conductor {
-  
+
+  /**
+   * An optional [ControllerFactory] used to re-create [Controller]s without reflection when their
+   * state is restored. Should be set before any [Router]s are attached.
+   */
+  @JvmStatic
+  @Volatile
+  var controllerFactory: ControllerFactory? = null
+
+  /**
+   * The [RouterStateStore] that backstack entries which are too deep or too large to be kept in a
+   * [Router]'s saved state are written to. Unless one is set before the first [Router] is attached, a
+   * [FileRouterStateStore] in the app's cache directory is used. Set to null to keep every entry in the
+   * saved state instead.
+   */
+  @JvmStatic
+  @Volatile
+  var routerStateStore: RouterStateStore? = null
+    set(value) {
+      field = value
+      routerStateStoreSet = true
+    }
+
+  @Volatile
+  private var routerStateStoreSet = false
+
+  /**
+   * An optional [ConductorTracer] that receives sections around expensive [Controller] and [Router]
+   * lifecycle steps. Set a [SystemTracer] to see them in systrace.
+   */
+  @JvmStatic
+  @Volatile
+  var tracer: ConductorTracer? = null
+
+  /**
+   * Whether [Controller]s that haven't changed since the last time their state was saved should reuse
+   * that state rather than saving it again, so that saving a large tree only costs as much as what has
+   * changed since the last save. Controllers that change what they write in
+   * [Controller.onSaveInstanceState] while they aren't attached must call [Controller.invalidateSavedState]
+   * when this is enabled. Defaults to false.
+   */
+  @JvmStatic
+  @Volatile
+  var incrementalStateSaving: Boolean = false
+
+  /**
+   * Whether [com.bluelinelabs.conductor.changehandler.AnimatorChangeHandler]s should put the views they
+   * animate on hardware layers for the duration of the change, with the built in handlers animating them
+   * through [android.view.ViewPropertyAnimator]s rather than ObjectAnimators. Individual handlers can
+   * override [com.bluelinelabs.conductor.changehandler.AnimatorChangeHandler.useHardwareAnimations] to opt
+   * in or out. Defaults to false.
+   */
+  @JvmStatic
+  @Volatile
+  var hardwareAnimations: Boolean = false
+
+  /**
+   * Whether [com.bluelinelabs.conductor.changehandler.AnimatorChangeHandler]s should measure and lay out
+   * a freshly added view against its container as soon as it's added, so that its animation can start
+   * in the same frame instead of the next one. Individual handlers can override
+   * [com.bluelinelabs.conductor.changehandler.AnimatorChangeHandler.measuresViewsEagerly] to opt in or
+   * out. Defaults to false.
+   */
+  @JvmStatic
+  @Volatile
+  var eagerAnimationLayout: Boolean = false
+
   @JvmStatic
   fun attachRouter(activity: AppCompatActivity, container: ViewGroup): Router {
     ensureMainThread()
+    if (!routerStateStoreSet) {
+      routerStateStore = FileRouterStateStore(activity.applicationContext)
+    }
     return LifecycleHandler.install(activity)
       .getRouter(container)
       .also { it.rebindIfNeeded() }
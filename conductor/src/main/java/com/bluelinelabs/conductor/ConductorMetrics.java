@@ -0,0 +1,19 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Receives timings for every change a {@link Router} performs, which is useful for tracking navigation latency
+ * in production. Metrics listeners are added with {@link Router#addMetricsListener(ConductorMetrics)} and are
+ * called on the main thread once each change has completed.
+ */
+public interface ConductorMetrics {
+
+    /**
+     * Called when a change has completed.
+     *
+     * @param metrics The timings of the change. The instance is not reused, so it may be kept for later reporting.
+     */
+    void onChangeMeasured(@NonNull ChangeMetrics metrics);
+
+}
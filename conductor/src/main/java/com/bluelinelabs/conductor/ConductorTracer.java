@@ -0,0 +1,27 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Receives named sections around the expensive steps of the {@link Controller} and {@link Router} lifecycles, such
+ * as creating, attaching and saving a Controller. Section names include the Controller's class, so slow screens
+ * can be told apart in a profile. Installed with {@link Conductor#setTracer(ConductorTracer)}; use
+ * {@link SystemTracer} to forward sections to {@link android.os.Trace}.
+ * <p>
+ * Sections are always ended in the reverse order they were begun, on the main thread.
+ */
+public interface ConductorTracer {
+
+    /**
+     * Called when a section begins.
+     *
+     * @param name The name of the section, ex: "Controller.attach HomeController"
+     */
+    void beginSection(@NonNull String name);
+
+    /**
+     * Called when the most recently begun section ends.
+     */
+    void endSection();
+
+}
@@ -21,20 +21,20 @@ import android.view.ViewGroup;
 import androidx.annotation.IdRes;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
 
 import com.bluelinelabs.conductor.internal.ClassUtils;
 import com.bluelinelabs.conductor.internal.RouterRequiringFunc;
+import com.bluelinelabs.conductor.internal.ThreadUtils;
 import com.bluelinelabs.conductor.internal.ViewAttachHandler;
 import com.bluelinelabs.conductor.internal.ViewAttachHandler.ViewAttachListener;
 
 import java.lang.ref.WeakReference;
-import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * A Controller manages portions of the UI. It is similar to an Activity or Fragment in that it manages its
@@ -58,11 +58,15 @@ public abstract class Controller {
     private static final String KEY_VIEW_STATE_HIERARCHY = "Controller.viewState.hierarchy";
     static final String KEY_VIEW_STATE_BUNDLE = "Controller.viewState.bundle";
     private static final String KEY_RETAIN_VIEW_MODE = "Controller.retainViewMode";
+    private static final String KEY_STORED_STATE = "Controller.storedState";
+
+    private static final LifecycleListener[] NO_LIFECYCLE_LISTENERS = new LifecycleListener[0];
 
     private final Bundle args;
 
     Bundle viewState;
     private Bundle savedInstanceState;
+    private Bundle lastSavedState;
     boolean isBeingDestroyed;
     private boolean destroyed;
     private boolean attached;
@@ -84,8 +88,13 @@ public abstract class Controller {
     private ControllerChangeHandler overriddenPopHandler;
     private RetainViewMode retainViewMode = RetainViewMode.RELEASE_DETACH;
     private ViewAttachHandler viewAttachHandler;
+    ViewPrefetch viewPrefetch;
+    private ActivityCallbackRegistry activityCallbackRegistry;
+    private OptionsMenuRegistry optionsMenuRegistry;
     private final List<ControllerHostedRouter> childRouters = new ArrayList<>();
-    private final List<LifecycleListener> lifecycleListeners = new ArrayList<>();
+    // Copy-on-write snapshot so that dispatching lifecycle events never allocates, even if listeners are added or
+    // removed from within a callback.
+    private LifecycleListener[] lifecycleListeners = NO_LIFECYCLE_LISTENERS;
     private final ArrayList<String> requestedPermissions = new ArrayList<>();
     private final ArrayList<RouterRequiringFunc> onRouterSetListeners = new ArrayList<>();
     private WeakReference<View> destroyedView;
@@ -94,38 +103,138 @@ public abstract class Controller {
 
     @NonNull
     static Controller newInstance(@NonNull Bundle bundle) {
-        final String className = bundle.getString(KEY_CLASS_NAME);
-        //noinspection ConstantConditions
-        Class cls = ClassUtils.classForName(className, false);
-        Constructor[] constructors = cls.getConstructors();
-        Constructor bundleConstructor = getBundleConstructor(constructors);
+        if (isStoredState(bundle)) {
+            bundle = readStoredState(bundle);
+        }
 
+        final String className = bundle.getString(KEY_CLASS_NAME);
         Bundle args = bundle.getBundle(KEY_ARGS);
+
+        //noinspection ConstantConditions
+        Class<?> controllerClass = ClassUtils.classForName(className, false);
         if (args != null) {
-            args.setClassLoader(cls.getClassLoader());
+            //noinspection ConstantConditions
+            args.setClassLoader(controllerClass.getClassLoader());
         }
 
-        Controller controller;
-        try {
-            if (bundleConstructor != null) {
-                controller = (Controller) bundleConstructor.newInstance(args);
-            } else {
-                //noinspection ConstantConditions
-                controller = (Controller) getDefaultConstructor(constructors).newInstance();
-
-                // Restore the args that existed before the last process death
-                if (args != null) {
-                    controller.args.putAll(args);
+        //noinspection ConstantConditions
+        Controller controller = newInstanceFromFactory(controllerClass, args);
+        if (controller == null) {
+            // Constructors are only looked up for Controllers the factory doesn't know about
+            ControllerConstructors constructors = ControllerConstructors.forClass(controllerClass);
+            try {
+                if (constructors.bundleConstructor != null) {
+                    controller = (Controller) constructors.bundleConstructor.newInstance(args);
+                } else {
+                    //noinspection ConstantConditions
+                    controller = (Controller) constructors.defaultConstructor.newInstance();
+
+                    // Restore the args that existed before the last process death
+                    if (args != null) {
+                        controller.args.putAll(args);
+                    }
                 }
+            } catch (Exception e) {
+                throw new RuntimeException("An exception occurred while creating a new instance of " + className + ". " + e.getMessage(), e);
             }
-        } catch (Exception e) {
-            throw new RuntimeException("An exception occurred while creating a new instance of " + className + ". " + e.getMessage(), e);
         }
 
         controller.restoreInstanceState(bundle);
         return controller;
     }
 
+    @NonNull
+    static String instanceIdFromState(@NonNull Bundle savedInstanceState) {
+        //noinspection ConstantConditions
+        return savedInstanceState.getString(KEY_INSTANCE_ID);
+    }
+
+    static boolean needsAttachFromState(@NonNull Bundle savedInstanceState) {
+        return savedInstanceState.getBoolean(KEY_NEEDS_ATTACH);
+    }
+
+    static void setNeedsAttachInState(@NonNull Bundle savedInstanceState, boolean needsAttach) {
+        savedInstanceState.putBoolean(KEY_NEEDS_ATTACH, needsAttach);
+    }
+
+    static boolean isStoredState(@NonNull Bundle savedInstanceState) {
+        return savedInstanceState.containsKey(KEY_STORED_STATE);
+    }
+
+    /**
+     * Writes the passed saved state to the store and returns a small placeholder to save in its place, or returns
+     * {@code null} if it could not be written. The placeholder keeps everything that's needed before the Controller
+     * is restored.
+     */
+    @Nullable
+    static Bundle writeStoredState(@NonNull Bundle savedInstanceState, @NonNull RouterStateStore store) {
+        if (isStoredState(savedInstanceState)) {
+            return savedInstanceState;
+        }
+
+        String instanceId = instanceIdFromState(savedInstanceState);
+        if (!store.write(instanceId, savedInstanceState)) {
+            return null;
+        }
+
+        Bundle placeholder = new Bundle();
+        placeholder.putString(KEY_STORED_STATE, instanceId);
+        placeholder.putString(KEY_CLASS_NAME, savedInstanceState.getString(KEY_CLASS_NAME));
+        placeholder.putBundle(KEY_ARGS, savedInstanceState.getBundle(KEY_ARGS));
+        placeholder.putString(KEY_INSTANCE_ID, instanceId);
+        placeholder.putBoolean(KEY_NEEDS_ATTACH, savedInstanceState.getBoolean(KEY_NEEDS_ATTACH));
+        placeholder.putInt(KEY_RETAIN_VIEW_MODE, savedInstanceState.getInt(KEY_RETAIN_VIEW_MODE));
+        placeholder.putBundle(KEY_OVERRIDDEN_PUSH_HANDLER, savedInstanceState.getBundle(KEY_OVERRIDDEN_PUSH_HANDLER));
+        placeholder.putBundle(KEY_OVERRIDDEN_POP_HANDLER, savedInstanceState.getBundle(KEY_OVERRIDDEN_POP_HANDLER));
+        return placeholder;
+    }
+
+    @NonNull
+    private static Bundle readStoredState(@NonNull Bundle placeholder) {
+        RouterStateStore store = Conductor.getRouterStateStore();
+        //noinspection ConstantConditions
+        Bundle savedInstanceState = store != null ? store.read(placeholder.getString(KEY_STORED_STATE)) : null;
+        if (savedInstanceState == null) {
+            // The store was cleared (ex: the OS trimmed the cache directory). Restore what the placeholder kept, which
+            // matches a Controller that was created with its args but never saved any state of its own.
+            return placeholder;
+        }
+
+        // The placeholder may have been updated since the state was written
+        savedInstanceState.putBoolean(KEY_NEEDS_ATTACH, placeholder.getBoolean(KEY_NEEDS_ATTACH));
+        return savedInstanceState;
+    }
+
+    @Nullable
+    static ControllerChangeHandler overriddenPushHandlerFromState(@NonNull Bundle savedInstanceState) {
+        return ControllerChangeHandler.fromBundle(savedInstanceState.getBundle(KEY_OVERRIDDEN_PUSH_HANDLER));
+    }
+
+    @Nullable
+    static ControllerChangeHandler overriddenPopHandlerFromState(@NonNull Bundle savedInstanceState) {
+        return ControllerChangeHandler.fromBundle(savedInstanceState.getBundle(KEY_OVERRIDDEN_POP_HANDLER));
+    }
+
+    @Nullable
+    private static Controller newInstanceFromFactory(@NonNull Class<?> controllerClass, @Nullable Bundle args) {
+        ControllerFactory factory = Conductor.getControllerFactory();
+        if (factory == null) {
+            return null;
+        }
+
+        String className = controllerClass.getName();
+        Controller controller = factory.newInstance(className, args);
+        if (controller != null && !controllerClass.isInstance(controller)) {
+            throw new IllegalStateException(factory.getClass().getName() + " returned a " + controller.getClass().getName() + " when asked to create a " + className);
+        }
+
+        if (controller != null && args != null && controller.args != args) {
+            // The default constructor was used, so restore the args that existed before the last process death
+            controller.args.putAll(args);
+        }
+        return controller;
+    }
+
     /**
      * Convenience constructor for use when no arguments are needed.
      */
@@ -140,7 +249,7 @@ public abstract class Controller {
      */
     protected Controller(@Nullable Bundle args) {
         this.args = args != null ? args : new Bundle(getClass().getClassLoader());
-        instanceId = UUID.randomUUID().toString();
+        instanceId = InstanceIds.next();
         ensureRequiredConstructor();
     }
 
@@ -234,6 +343,7 @@ public abstract class Controller {
                 childRouter = new ControllerHostedRouter(container.getId(), tag);
                 childRouter.setHostContainer(this, container);
                 childRouters.add(childRouter);
+                invalidateSavedState();
 
                 if (isPerformingExitTransition) {
                     childRouter.setDetachFrozen(true);
@@ -255,10 +365,85 @@ public abstract class Controller {
      */
     public final void removeChildRouter(@NonNull Router childRouter) {
         if ((childRouter instanceof ControllerHostedRouter) && childRouters.remove(childRouter)) {
+            invalidateSavedState();
             childRouter.destroy(true);
         }
     }
 
+    /**
+     * Starts creating this Controller's view ahead of time so it's ready by the time the Controller is shown,
+     * instead of being created in the same frame as the change that shows it. The view is created on a background
+     * thread if {@link #canPrepareViewOffMainThread()} returns true, or when the main thread is next idle otherwise.
+     * If the view isn't ready in time, it will be created normally when it's needed.
+     * <p>
+     * A view prepared this way is created before this Controller has a Router, so {@link #onCreateView} can't rely
+     * on {@link #getRouter()} or {@link #getActivity()}. It's dropped if the parent is detached from its window, such
+     * as when the Activity is destroyed. Most apps will want to use {@link Router#prefetch} rather than calling this
+     * directly.
+     *
+     * @param parent The container this Controller's view will be attached to. The prepared view is only used if
+     *               the Controller is later shown in this same container.
+     */
+    @UiThread
+    public final void prepareView(@NonNull ViewGroup parent) {
+        ThreadUtils.ensureMainThread();
+
+        if (view != null || isBeingDestroyed || destroyed) {
+            return;
+        }
+
+        if (viewPrefetch != null) {
+            if (viewPrefetch.isFor(parent)) {
+                return;
+            }
+            viewPrefetch.cancel();
+        }
+
+        Bundle savedViewState = viewState == null ? null : viewState.getBundle(KEY_VIEW_STATE_BUNDLE);
+        viewPrefetch = ViewPrefetch.start(this, parent, savedViewState, canPrepareViewOffMainThread());
+    }
+
+    /**
+     * Drops the passed prefetch if it's still the current one, so its view and the Context it was created with
+     * can be collected.
+     */
+    void dropViewPrefetch(@NonNull ViewPrefetch prefetch) {
+        if (viewPrefetch == prefetch) {
+            viewPrefetch.cancel();
+            viewPrefetch = null;
+        }
+    }
+
+    /**
+     * Creates a new view without notifying any lifecycle listeners. May be called on a background thread when the
+     * view is being prepared ahead of time.
+     */
+    @NonNull
+    View buildView(@NonNull LayoutInflater inflater, @NonNull ViewGroup parent, @Nullable Bundle savedViewState) {
+        View view;
+        ConductorTracer tracer = Tracing.begin("Controller.onCreateView", this);
+        try {
+            view = onCreateView(inflater, parent, savedViewState);
+        } finally {
+            Tracing.end(tracer);
+        }
+        if (view == parent) {
+            throw new IllegalStateException("Controller's onCreateView method returned the parent ViewGroup. Perhaps you forgot to pass false for LayoutInflater.inflate's attachToRoot parameter?");
+        }
+        return view;
+    }
+
+    /**
+     * Returns whether or not {@link #prepareView(ViewGroup)} may call {@link #onCreateView} on a background thread.
+     * Only return true if onCreateView doesn't touch any state that belongs to the main thread, and if every view
+     * in the layout can be constructed off the main thread (views that create a Handler or an animation when
+     * they're constructed usually can't). Defaults to false, in which case views are prepared in the main thread's
+     * idle time.
+     */
+    protected boolean canPrepareViewOffMainThread() {
+        return false;
+    }
+
     /**
      * Returns whether or not this Controller has been destroyed.
      */
@@ -336,27 +521,6 @@ public abstract class Controller {
         return instanceId;
     }
 
-    /**
-     * Returns the Controller with the given instance id or {@code null} if no such Controller
-     * exists. May return the Controller itself or a matching descendant
-     *
-     * @param instanceId The instance ID being searched for
-     */
-    @Nullable
-    final Controller findController(@NonNull String instanceId) {
-        if (this.instanceId.equals(instanceId)) {
-            return this;
-        }
-
-        for (Router router : childRouters) {
-            Controller matchingChild = router.getControllerWithInstanceId(instanceId);
-            if (matchingChild != null) {
-                return matchingChild;
-            }
-        }
-        return null;
-    }
-
     /**
      * Returns all of this Controller's child Routers
      */
@@ -380,6 +544,7 @@ public abstract class Controller {
         }
 
         targetInstanceId = target != null ? target.getInstanceId() : null;
+        invalidateSavedState();
     }
 
     /**
@@ -396,6 +561,20 @@ public abstract class Controller {
         return null;
     }
 
+    /**
+     * Called instead of {@link #onCreateView} when this Controller uses {@link RetainViewMode#RECYCLE} and a view
+     * released by another instance of the same class is available. Implementations should bind to the passed view
+     * the same way they would to a newly created one and return true. The view's state from its previous Controller
+     * is still in place, so anything that isn't restored from savedViewState should be reset. Returning false, which
+     * the default implementation does, discards the view and calls onCreateView instead.
+     *
+     * @param view      The recycled view
+     * @param container The parent view that this Controller's view will be attached to
+     */
+    protected boolean onBindRecycledView(@NonNull View view, @NonNull ViewGroup container, @Nullable Bundle savedViewState) {
+        return false;
+    }
+
     /**
      * Called when this Controller's View is being destroyed. This should overridden to unbind the View
      * from any local variables.
@@ -498,6 +677,23 @@ public abstract class Controller {
      */
     protected void onSaveInstanceState(@NonNull Bundle outState) { }
 
+    /**
+     * Tells Conductor that the state this Controller last saved is out of date. Only needed when
+     * {@link Conductor#getIncrementalStateSaving()} is enabled, in which case Controllers that aren't attached
+     * reuse their last saved state until something Conductor knows about changes. Call this after changing anything
+     * that {@link #onSaveInstanceState(Bundle)} writes, or after modifying {@link #getArgs()}, while this Controller
+     * isn't attached.
+     */
+    public final void invalidateSavedState() {
+        if (lastSavedState != null) {
+            lastSavedState = null;
+
+            if (router != null) {
+                router.invalidateSavedState();
+            }
+        }
+    }
+
     /**
      * Restores data that was saved in the {@link #onSaveInstanceState(Bundle)} method. This should be overridden
      * to restore this Controller's state to where it was before it was destroyed.
@@ -571,6 +767,7 @@ public abstract class Controller {
     @TargetApi(Build.VERSION_CODES.M)
     public final void requestPermissions(@NonNull final String[] permissions, final int requestCode) {
         requestedPermissions.addAll(Arrays.asList(permissions));
+        invalidateSavedState();
 
         executeWithRouter(new RouterRequiringFunc() {
             @Override public void execute() { router.requestPermissions(instanceId, permissions, requestCode); }
@@ -615,6 +812,11 @@ public abstract class Controller {
         });
 
         for (RouterTransaction transaction : childTransactions) {
+            if (!transaction.isHydrated()) {
+                // Controllers that haven't been restored yet can't be attached
+                continue;
+            }
+
             Controller childController = transaction.controller();
 
             if (childController.isAttached() && childController.getRouter().handleBack()) {
@@ -631,8 +833,10 @@ public abstract class Controller {
      * @param lifecycleListener The listener
      */
     public final void addLifecycleListener(@NonNull LifecycleListener lifecycleListener) {
-        if (!lifecycleListeners.contains(lifecycleListener)) {
-            lifecycleListeners.add(lifecycleListener);
+        if (indexOfLifecycleListener(lifecycleListener) < 0) {
+            LifecycleListener[] listeners = Arrays.copyOf(lifecycleListeners, lifecycleListeners.length + 1);
+            listeners[lifecycleListeners.length] = lifecycleListener;
+            lifecycleListeners = listeners;
         }
     }
 
@@ -642,7 +846,26 @@ public abstract class Controller {
      * @param lifecycleListener The listener to be removed
      */
     public final void removeLifecycleListener(@NonNull LifecycleListener lifecycleListener) {
-        lifecycleListeners.remove(lifecycleListener);
+        int index = indexOfLifecycleListener(lifecycleListener);
+        if (index >= 0) {
+            if (lifecycleListeners.length == 1) {
+                lifecycleListeners = NO_LIFECYCLE_LISTENERS;
+            } else {
+                LifecycleListener[] listeners = new LifecycleListener[lifecycleListeners.length - 1];
+                System.arraycopy(lifecycleListeners, 0, listeners, 0, index);
+                System.arraycopy(lifecycleListeners, index + 1, listeners, index, listeners.length - index);
+                lifecycleListeners = listeners;
+            }
+        }
+    }
+
+    private int indexOfLifecycleListener(@NonNull LifecycleListener lifecycleListener) {
+        for (int i = 0; i < lifecycleListeners.length; i++) {
+            if (lifecycleListeners[i].equals(lifecycleListener)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -659,7 +882,8 @@ public abstract class Controller {
      */
     public void setRetainViewMode(@NonNull RetainViewMode retainViewMode) {
         this.retainViewMode = retainViewMode != null ? retainViewMode : RetainViewMode.RELEASE_DETACH;
-        if (this.retainViewMode == RetainViewMode.RELEASE_DETACH && !attached) {
+        invalidateSavedState();
+        if (this.retainViewMode != RetainViewMode.RETAIN_DETACH && !attached) {
             removeViewReference();
         }
     }
@@ -679,6 +903,7 @@ public abstract class Controller {
      */
     public void overridePushHandler(@Nullable ControllerChangeHandler overriddenPushHandler) {
         this.overriddenPushHandler = overriddenPushHandler;
+        invalidateSavedState();
     }
 
     /**
@@ -696,6 +921,7 @@ public abstract class Controller {
      */
     public void overridePopHandler(@Nullable ControllerChangeHandler overriddenPopHandler) {
         this.overriddenPopHandler = overriddenPopHandler;
+        invalidateSavedState();
     }
 
     /**
@@ -705,13 +931,8 @@ public abstract class Controller {
      * @param hasOptionsMenu If true, this controller's options menu callbacks will be called.
      */
     public final void setHasOptionsMenu(boolean hasOptionsMenu) {
-        boolean invalidate = attached && !optionsMenuHidden && this.hasOptionsMenu != hasOptionsMenu;
-
         this.hasOptionsMenu = hasOptionsMenu;
-
-        if (invalidate) {
-            router.invalidateOptionsMenu();
-        }
+        updateOptionsMenuRegistration();
     }
 
     /**
@@ -722,13 +943,8 @@ public abstract class Controller {
      * @param optionsMenuHidden Defaults to false. If true, this controller's menu items will not be shown.
      */
     public final void setOptionsMenuHidden(boolean optionsMenuHidden) {
-        boolean invalidate = attached && hasOptionsMenu && this.optionsMenuHidden != optionsMenuHidden;
-
         this.optionsMenuHidden = optionsMenuHidden;
-
-        if (invalidate) {
-            router.invalidateOptionsMenu();
-        }
+        updateOptionsMenuRegistration();
     }
 
     /**
@@ -759,11 +975,14 @@ public abstract class Controller {
     }
 
     final void setNeedsAttach(boolean needsAttach) {
-        this.needsAttach = needsAttach;
+        if (this.needsAttach != needsAttach) {
+            this.needsAttach = needsAttach;
+            invalidateSavedState();
+        }
     }
 
     final void prepareForHostDetach() {
-        needsAttach = needsAttach || attached;
+        setNeedsAttach(needsAttach || attached);
 
         for (ControllerHostedRouter router : childRouters) {
             router.prepareForHostDetach();
@@ -786,6 +1005,10 @@ public abstract class Controller {
     final void setRouter(@NonNull Router router) {
         if (this.router != router) {
             this.router = router;
+            for (ControllerHostedRouter childRouter : childRouters) {
+                childRouter.handOverDetachedState();
+            }
+            updateRegistrationsRecursively();
 
             performOnRestoreInstanceState();
 
@@ -802,16 +1025,14 @@ public abstract class Controller {
         final Context context = router.getActivity();
 
         if (context != null && !isContextAvailable) {
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.preContextAvailable(this);
             }
 
             isContextAvailable = true;
             onContextAvailable(context);
 
-            listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.postContextAvailable(this, context);
             }
         }
@@ -829,6 +1050,46 @@ public abstract class Controller {
         }
     }
 
+    /**
+     * Registers this Controller to receive Activity lifecycle callbacks from its root Router if it needs them, or
+     * unregisters it if it doesn't.
+     */
+    private void updateActivityCallbackRegistration() {
+        ActivityCallbackRegistry registry = null;
+        if (router != null && !isBeingDestroyed && (view != null || ActivityCallbackRegistry.overridesActivityCallbacks(getClass()))) {
+            registry = router.getActivityCallbackRegistry();
+        }
+
+        if (registry != activityCallbackRegistry) {
+            if (activityCallbackRegistry != null) {
+                activityCallbackRegistry.remove(this);
+            }
+
+            activityCallbackRegistry = registry;
+
+            if (registry != null) {
+                registry.add(this);
+            }
+        }
+    }
+
+    /**
+     * Updates the registrations of this Controller and of everything below it, which may have been made with a
+     * child Router's own registries if this Controller didn't have a Router yet.
+     */
+    private void updateRegistrationsRecursively() {
+        updateActivityCallbackRegistration();
+        updateOptionsMenuRegistration();
+
+        for (ControllerHostedRouter childRouter : childRouters) {
+            for (RouterTransaction transaction : childRouter.backstack) {
+                if (transaction.isHydrated()) {
+                    transaction.controller().updateRegistrationsRecursively();
+                }
+            }
+        }
+    }
+
     final void activityStarted(@NonNull Activity activity) {
         if (viewAttachHandler != null) {
             viewAttachHandler.onActivityStarted();
@@ -874,22 +1135,29 @@ public abstract class Controller {
         }
 
         if (isContextAvailable) {
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.preContextUnavailable(this, activity);
             }
 
             isContextAvailable = false;
             onContextUnavailable();
 
-            listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.postContextUnavailable(this);
             }
         }
     }
 
     void attach(@NonNull View view) {
+        ConductorTracer tracer = Tracing.begin("Controller.attach", this);
+        try {
+            performAttach(view);
+        } finally {
+            Tracing.end(tracer);
+        }
+    }
+
+    private void performAttach(@NonNull View view) {
         attachedToUnownedParent = router == null || view.getParent() != router.container;
         if (attachedToUnownedParent || isBeingDestroyed) {
             return;
@@ -903,29 +1171,26 @@ public abstract class Controller {
         }
 
         hasSavedViewState = false;
+        invalidateSavedState();
 
-        List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-        for (LifecycleListener lifecycleListener : listeners) {
+        for (LifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.preAttach(this, view);
         }
 
         attached = true;
-        needsAttach = router.isActivityStopped;
+        needsAttach = router.getRootRouter().isActivityStopped;
 
         onAttach(view);
 
-        if (hasOptionsMenu && !optionsMenuHidden) {
-            router.invalidateOptionsMenu();
-        }
+        updateOptionsMenuRegistration();
 
-        listeners = new ArrayList<>(lifecycleListeners);
-        for (LifecycleListener lifecycleListener : listeners) {
+        for (LifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.postAttach(Controller.this, view);
         }
 
         for (ControllerHostedRouter childRouter : childRouters) {
             for (RouterTransaction childTransaction : childRouter.backstack) {
-                if (childTransaction.controller().awaitingParentAttach) {
+                if (childTransaction.isHydrated() && childTransaction.controller().awaitingParentAttach) {
                     childTransaction.controller().attach(childTransaction.controller().view);
                 }
             }
@@ -937,17 +1202,25 @@ public abstract class Controller {
     }
 
     void detach(@NonNull View view, boolean forceViewRefRemoval, boolean blockViewRefRemoval) {
+        ConductorTracer tracer = Tracing.begin("Controller.detach", this);
+        try {
+            performDetach(view, forceViewRefRemoval, blockViewRefRemoval);
+        } finally {
+            Tracing.end(tracer);
+        }
+    }
+
+    private void performDetach(@NonNull View view, boolean forceViewRefRemoval, boolean blockViewRefRemoval) {
         if (!attachedToUnownedParent) {
             for (ControllerHostedRouter router : childRouters) {
                 router.prepareForHostDetach();
             }
         }
 
-        final boolean removeViewRef = !blockViewRefRemoval && (forceViewRefRemoval || retainViewMode == RetainViewMode.RELEASE_DETACH || isBeingDestroyed);
+        final boolean removeViewRef = !blockViewRefRemoval && (forceViewRefRemoval || retainViewMode != RetainViewMode.RETAIN_DETACH || isBeingDestroyed);
 
         if (attached) {
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.preDetach(this, view);
             }
 
@@ -957,12 +1230,9 @@ public abstract class Controller {
                 onDetach(view);
             }
 
-            if (hasOptionsMenu && !optionsMenuHidden) {
-                router.invalidateOptionsMenu();
-            }
+            updateOptionsMenuRegistration();
 
-            listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.postDetach(this, view);
             }
         }
@@ -974,12 +1244,13 @@ public abstract class Controller {
 
     private void removeViewReference() {
         if (view != null) {
+            final View releasedView = view;
+
             if (!isBeingDestroyed && !hasSavedViewState) {
                 saveViewState(view);
             }
 
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.preDestroyView(this, view);
             }
 
@@ -997,15 +1268,19 @@ public abstract class Controller {
                 destroyedView = new WeakReference<>(view);
             }
             view = null;
+            updateActivityCallbackRegistration();
 
-            listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.postDestroyView(this);
             }
 
             for (ControllerHostedRouter childRouter : childRouters) {
                 childRouter.removeHost();
             }
+
+            if (recycleView(releasedView)) {
+                destroyedView = null;
+            }
         }
 
         if (isBeingDestroyed) {
@@ -1014,30 +1289,65 @@ public abstract class Controller {
     }
 
     final View inflate(@NonNull ViewGroup parent) {
+        return inflate(parent, null);
+    }
+
+    final View inflate(@NonNull ViewGroup parent, @Nullable ChangeMetrics metrics) {
+        ConductorTracer tracer = Tracing.begin("Controller.inflate", this);
+        try {
+            return performInflate(parent, metrics);
+        } finally {
+            Tracing.end(tracer);
+        }
+    }
+
+    private View performInflate(@NonNull ViewGroup parent, @Nullable ChangeMetrics metrics) {
         if (view != null && view.getParent() != null && view.getParent() != parent) {
             detach(view, true, false);
             removeViewReference();
         }
 
         if (view == null) {
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            long createViewStart = System.nanoTime();
+            Bundle savedViewState = viewState == null ? null : viewState.getBundle(KEY_VIEW_STATE_BUNDLE);
+
+            View preparedView = null;
+            if (viewPrefetch != null) {
+                preparedView = viewPrefetch.take(parent);
+                viewPrefetch = null;
+            }
+
+            if (preparedView == null && retainViewMode == RetainViewMode.RECYCLE && router != null) {
+                preparedView = router.getViewPool().take(getClass(), parent.getContext());
+                if (preparedView != null && !onBindRecycledView(preparedView, parent, savedViewState)) {
+                    preparedView = null;
+                }
+            }
+
+            // Prepared and recycled views are new to this Controller as well, so listeners still need to hear about
+            // them. Their callbacks only run once the view is actually used, and always on the main thread.
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.preCreateView(this);
             }
 
-            Bundle savedViewState = viewState == null ? null : viewState.getBundle(KEY_VIEW_STATE_BUNDLE);
-            view = onCreateView(LayoutInflater.from(parent.getContext()), parent, savedViewState);
-            if (view == parent) {
-                throw new IllegalStateException("Controller's onCreateView method returned the parent ViewGroup. Perhaps you forgot to pass false for LayoutInflater.inflate's attachToRoot parameter?");
+            if (preparedView != null) {
+                view = preparedView;
+            } else {
+                view = buildView(LayoutInflater.from(parent.getContext()), parent, savedViewState);
             }
 
-            listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.postCreateView(this, view);
             }
+            long createViewEnd = System.nanoTime();
 
+            long restoreViewStateStart = System.nanoTime();
             restoreViewState(view);
 
+            if (metrics != null) {
+                metrics.onViewCreated(createViewEnd - createViewStart, System.nanoTime() - restoreViewStateStart);
+            }
+
             if (!isBeingDestroyed) {
                 viewAttachHandler = new ViewAttachHandler(new ViewAttachListener() {
                     @Override
@@ -1066,6 +1376,8 @@ public abstract class Controller {
                 });
                 viewAttachHandler.listenForAttach(view);
             }
+
+            updateActivityCallbackRegistration();
         } else {
             restoreChildControllerHosts();
         }
@@ -1073,6 +1385,14 @@ public abstract class Controller {
         return view;
     }
 
+    private boolean recycleView(@NonNull View view) {
+        if (retainViewMode != RetainViewMode.RECYCLE || router == null || !childRouters.isEmpty()) {
+            return false;
+        }
+
+        return router.getViewPool().put(getClass(), view);
+    }
+
     private void restoreChildControllerHosts() {
         for (ControllerHostedRouter childRouter : childRouters) {
             if (!childRouter.hasHost()) {
@@ -1088,23 +1408,20 @@ public abstract class Controller {
 
     private void performDestroy() {
         if (isContextAvailable) {
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.preContextUnavailable(this, getActivity());
             }
 
             isContextAvailable = false;
             onContextUnavailable();
 
-            listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.postContextUnavailable(this);
             }
         }
 
         if (!destroyed) {
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.preDestroy(this);
             }
 
@@ -1114,8 +1431,7 @@ public abstract class Controller {
 
             parentController = null;
 
-            listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.postDestroy(this);
             }
         }
@@ -1127,6 +1443,12 @@ public abstract class Controller {
 
     private void destroy(boolean removeViews) {
         isBeingDestroyed = true;
+        updateActivityCallbackRegistration();
+
+        if (viewPrefetch != null) {
+            viewPrefetch.cancel();
+            viewPrefetch = null;
+        }
 
         if (router != null) {
             router.unregisterForActivityResults(instanceId);
@@ -1144,7 +1466,17 @@ public abstract class Controller {
     }
 
     private void saveViewState(@NonNull View view) {
+        ConductorTracer tracer = Tracing.begin("Controller.saveViewState", this);
+        try {
+            performSaveViewState(view);
+        } finally {
+            Tracing.end(tracer);
+        }
+    }
+
+    private void performSaveViewState(@NonNull View view) {
         hasSavedViewState = true;
+        invalidateSavedState();
 
         viewState = new Bundle(getClass().getClassLoader());
 
@@ -1156,8 +1488,7 @@ public abstract class Controller {
         onSaveViewState(view, stateBundle);
         viewState.putBundle(KEY_VIEW_STATE_BUNDLE, stateBundle);
 
-        List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-        for (LifecycleListener lifecycleListener : listeners) {
+        for (LifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.onSaveViewState(this, viewState);
         }
     }
@@ -1171,14 +1502,26 @@ public abstract class Controller {
 
             restoreChildControllerHosts();
 
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.onRestoreViewState(this, viewState);
             }
         }
     }
 
     final Bundle saveInstanceState() {
+        ConductorTracer tracer = Tracing.begin("Controller.saveInstanceState", this);
+        try {
+            return performSaveInstanceState();
+        } finally {
+            Tracing.end(tracer);
+        }
+    }
+
+    private Bundle performSaveInstanceState() {
+        if (lastSavedState != null && Conductor.getIncrementalStateSaving()) {
+            return lastSavedState;
+        }
+
         if (!hasSavedViewState && view != null) {
             saveViewState(view);
         }
@@ -1211,17 +1554,35 @@ public abstract class Controller {
         Bundle savedState = new Bundle(getClass().getClassLoader());
         onSaveInstanceState(savedState);
 
-        List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-        for (LifecycleListener lifecycleListener : listeners) {
+        for (LifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.onSaveInstanceState(this, savedState);
         }
 
         outState.putBundle(KEY_SAVED_STATE, savedState);
 
+        // Attached Controllers are always saved again, as their views and state can change at any time
+        lastSavedState = Conductor.getIncrementalStateSaving() && !attached ? outState : null;
+
         return outState;
     }
 
+    /**
+     * Returns true if the state from the last call to {@link #saveInstanceState()} will be reused by the next one.
+     */
+    final boolean hasReusableSavedState() {
+        return lastSavedState != null && Conductor.getIncrementalStateSaving();
+    }
+
     private void restoreInstanceState(@NonNull Bundle savedInstanceState) {
+        ConductorTracer tracer = Tracing.begin("Controller.restoreInstanceState", this);
+        try {
+            performRestoreInstanceState(savedInstanceState);
+        } finally {
+            Tracing.end(tracer);
+        }
+    }
+
+    private void performRestoreInstanceState(@NonNull Bundle savedInstanceState) {
         viewState = savedInstanceState.getBundle(KEY_VIEW_STATE);
         if (viewState != null) {
             viewState.setClassLoader(getClass().getClassLoader());
@@ -1229,18 +1590,23 @@ public abstract class Controller {
 
         instanceId = savedInstanceState.getString(KEY_INSTANCE_ID);
         targetInstanceId = savedInstanceState.getString(KEY_TARGET_INSTANCE_ID);
-        requestedPermissions.addAll(savedInstanceState.getStringArrayList(KEY_REQUESTED_PERMISSIONS));
+        List<String> savedRequestedPermissions = savedInstanceState.getStringArrayList(KEY_REQUESTED_PERMISSIONS);
+        if (savedRequestedPermissions != null) {
+            requestedPermissions.addAll(savedRequestedPermissions);
+        }
         overriddenPushHandler = ControllerChangeHandler.fromBundle(savedInstanceState.getBundle(KEY_OVERRIDDEN_PUSH_HANDLER));
         overriddenPopHandler = ControllerChangeHandler.fromBundle(savedInstanceState.getBundle(KEY_OVERRIDDEN_POP_HANDLER));
         needsAttach = savedInstanceState.getBoolean(KEY_NEEDS_ATTACH);
         retainViewMode = RetainViewMode.values()[savedInstanceState.getInt(KEY_RETAIN_VIEW_MODE, 0)];
 
         List<Bundle> childBundles = savedInstanceState.getParcelableArrayList(KEY_CHILD_ROUTERS);
-        for (Bundle childBundle : childBundles) {
-            ControllerHostedRouter childRouter = new ControllerHostedRouter();
-            childRouter.setHostController(this);
-            childRouter.restoreInstanceState(childBundle);
-            childRouters.add(childRouter);
+        if (childBundles != null) {
+            for (Bundle childBundle : childBundles) {
+                ControllerHostedRouter childRouter = new ControllerHostedRouter();
+                childRouter.setHostController(this);
+                childRouter.restoreInstanceState(childBundle);
+                childRouters.add(childRouter);
+            }
         }
 
         this.savedInstanceState = savedInstanceState.getBundle(KEY_SAVED_STATE);
@@ -1254,8 +1620,7 @@ public abstract class Controller {
         if (savedInstanceState != null && router != null) {
             onRestoreInstanceState(savedInstanceState);
 
-            List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-            for (LifecycleListener lifecycleListener : listeners) {
+            for (LifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.onRestoreInstanceState(this, savedInstanceState);
             }
 
@@ -1273,8 +1638,7 @@ public abstract class Controller {
 
         onChangeStarted(changeHandler, changeType);
 
-        List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-        for (LifecycleListener lifecycleListener : listeners) {
+        for (LifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.onChangeStart(this, changeHandler, changeType);
         }
     }
@@ -1289,8 +1653,7 @@ public abstract class Controller {
 
         onChangeEnded(changeHandler, changeType);
 
-        List<LifecycleListener> listeners = new ArrayList<>(lifecycleListeners);
-        for (LifecycleListener lifecycleListener : listeners) {
+        for (LifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.onChangeEnd(this, changeHandler, changeType);
         }
 
@@ -1298,6 +1661,7 @@ public abstract class Controller {
             View view = destroyedView.get();
             if (router.container != null && view != null && view.getParent() == router.container) {
                 router.container.removeView(view);
+                recycleView(view);
             }
             destroyedView = null;
         }
@@ -1323,6 +1687,33 @@ public abstract class Controller {
         }
     }
 
+    /**
+     * Adds this Controller to its root Router's options menu registry if it contributes to the menu, or removes it if
+     * it doesn't, and invalidates the menu if that changed.
+     */
+    private void updateOptionsMenuRegistration() {
+        OptionsMenuRegistry registry = null;
+        if (attached && hasOptionsMenu && !optionsMenuHidden && router != null) {
+            registry = router.getOptionsMenuRegistry();
+        }
+
+        if (registry != optionsMenuRegistry) {
+            if (optionsMenuRegistry != null) {
+                optionsMenuRegistry.remove(this);
+            }
+
+            optionsMenuRegistry = registry;
+
+            if (registry != null) {
+                registry.add(this);
+            }
+
+            if (router != null) {
+                router.invalidateOptionsMenu();
+            }
+        }
+    }
+
     final void createOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
         if (attached && hasOptionsMenu && !optionsMenuHidden) {
             onCreateOptionsMenu(menu, inflater);
@@ -1344,30 +1735,14 @@ public abstract class Controller {
     }
 
     private void ensureRequiredConstructor() {
-        Constructor[] constructors = getClass().getConstructors();
-        if (getBundleConstructor(constructors) == null && getDefaultConstructor(constructors) == null) {
-            throw new RuntimeException(getClass() + " does not have a constructor that takes a Bundle argument or a default constructor. Controllers must have one of these in order to restore their states.");
-        }
-    }
-
-    @Nullable
-    private static Constructor getDefaultConstructor(@NonNull Constructor[] constructors) {
-        for (Constructor constructor : constructors) {
-            if (constructor.getParameterTypes().length == 0) {
-                return constructor;
-            }
+        ControllerFactory factory = Conductor.getControllerFactory();
+        if (factory != null && factory.canCreate(getClass().getName())) {
+            return;
         }
-        return null;
-    }
 
-    @Nullable
-    private static Constructor getBundleConstructor(@NonNull Constructor[] constructors) {
-        for (Constructor constructor : constructors) {
-            if (constructor.getParameterTypes().length == 1 && constructor.getParameterTypes()[0] == Bundle.class) {
-                return constructor;
-            }
+        if (!ControllerConstructors.forClass(getClass()).hasRequiredConstructor()) {
+            throw new RuntimeException(getClass() + " does not have a constructor that takes a Bundle argument or a default constructor. Controllers must have one of these in order to restore their states.");
         }
-        return null;
     }
 
     /**
@@ -1381,7 +1756,15 @@ public abstract class Controller {
         /**
          * The Controller will retain its reference to its view when detached, but will still release the reference when a config change occurs.
          */
-        RETAIN_DETACH
+        RETAIN_DETACH,
+        /**
+         * The Controller will release its reference to its view as soon as it is detached, but the view will be kept
+         * in a pool shared by its root {@link Router} so the next Controller of the same class can reuse it instead
+         * of creating a new one. Controllers using this mode must override
+         * {@link #onBindRecycledView(View, ViewGroup, Bundle)}. Views of Controllers that host child Routers are
+         * never pooled.
+         */
+        RECYCLE
     }
 
     /**
@@ -10,9 +10,7 @@ import android.view.ViewParent;
 import com.bluelinelabs.conductor.changehandler.SimpleSwapChangeHandler;
 import com.bluelinelabs.conductor.internal.ClassUtils;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * ControllerChangeHandlers are responsible for swapping the View for one Controller to the View
@@ -24,8 +22,6 @@ public abstract class ControllerChangeHandler {
     private static final String KEY_CLASS_NAME = "ControllerChangeHandler.className";
     private static final String KEY_SAVED_STATE = "ControllerChangeHandler.savedState";
 
-    static final Map<String, ChangeHandlerData> inProgressChangeHandlers = new HashMap<>();
-
     boolean forceRemoveViewOnPush;
     private boolean hasBeenUsed;
 
@@ -76,12 +72,34 @@ public abstract class ControllerChangeHandler {
 
     /**
      * Returns a copy of this ControllerChangeHandler. This method is internally used by the library, so
-     * ensure it will return an exact copy of your handler if overriding. If not overriding, the handler
-     * will be saved and restored from the Bundle format.
+     * ensure it will return an exact copy of your handler if overriding. If not overriding, a new instance
+     * of this handler's class will be created and its state will be copied over using
+     * {@link #copyStateTo(ControllerChangeHandler)}, falling back to {@link #saveToBundle(Bundle)} and
+     * {@link #restoreFromBundle(Bundle)}.
      */
     @NonNull
     public ControllerChangeHandler copy() {
-        return fromBundle(toBundle());
+        ControllerChangeHandler copy = ClassUtils.newInstance(getClass());
+
+        if (!copyStateTo(copy)) {
+            Bundle savedState = new Bundle();
+            saveToBundle(savedState);
+            copy.restoreFromBundle(savedState);
+        }
+
+        return copy;
+    }
+
+    /**
+     * Copies this handler's state directly into a new instance of the same class while it's being created by
+     * {@link #copy()}. Handlers that override this must copy everything they would have saved in
+     * {@link #saveToBundle(Bundle)}. Defaults to returning false, in which case the state is copied through a Bundle.
+     *
+     * @param copy The new instance, which is always of this handler's class
+     * @return True if the state was copied, false to copy it through a Bundle instead
+     */
+    protected boolean copyStateTo(@NonNull ControllerChangeHandler copy) {
+        return false;
     }
 
     /**
@@ -107,9 +125,7 @@ public abstract class ControllerChangeHandler {
     }
 
     private void ensureDefaultConstructor() {
-        try {
-            getClass().getConstructor();
-        } catch (Exception e) {
+        if (!ClassUtils.hasDefaultConstructor(getClass())) {
             throw new RuntimeException(getClass() + " does not have a default constructor.");
         }
     }
@@ -127,34 +143,14 @@ public abstract class ControllerChangeHandler {
         }
     }
 
-    static boolean completeHandlerImmediately(@NonNull String controllerInstanceId) {
-        ChangeHandlerData changeHandlerData = inProgressChangeHandlers.get(controllerInstanceId);
-        if (changeHandlerData != null) {
-            changeHandlerData.changeHandler.completeImmediately();
-            inProgressChangeHandlers.remove(controllerInstanceId);
-            return true;
-        }
-        return false;
-    }
-
-    static void abortOrComplete(@NonNull Controller toAbort, @Nullable Controller newController, @NonNull ControllerChangeHandler newChangeHandler) {
-        ChangeHandlerData changeHandlerData = inProgressChangeHandlers.get(toAbort.getInstanceId());
-        if (changeHandlerData != null) {
-            if (changeHandlerData.isPush) {
-                changeHandlerData.changeHandler.onAbortPush(newChangeHandler, newController);
-            } else {
-                changeHandlerData.changeHandler.completeImmediately();
-            }
-
-            inProgressChangeHandlers.remove(toAbort.getInstanceId());
-        }
-    }
-
     static void executeChange(@NonNull final ChangeTransaction transaction) {
-        executeChange(transaction.to, transaction.from, transaction.isPush, transaction.container, transaction.changeHandler, transaction.listeners);
+        executeChange(transaction.to, transaction.from, transaction.isPush, transaction.container, transaction.changeHandler, transaction.listeners,
+                transaction.router, transaction.metrics);
     }
 
-    private static void executeChange(@Nullable final Controller to, @Nullable final Controller from, final boolean isPush, @Nullable final ViewGroup container, @Nullable final ControllerChangeHandler inHandler, @NonNull final List<ControllerChangeListener> listeners) {
+    private static void executeChange(@Nullable final Controller to, @Nullable final Controller from, final boolean isPush, @Nullable final ViewGroup container,
+                                      @Nullable final ControllerChangeHandler inHandler, @NonNull final List<ControllerChangeListener> listeners,
+                                      @NonNull final Router router, @Nullable final ChangeMetrics metrics) {
         if (container != null) {
             final ControllerChangeHandler handler;
             if (inHandler == null) {
@@ -166,16 +162,21 @@ public abstract class ControllerChangeHandler {
             }
             handler.hasBeenUsed = true;
 
+            if (metrics != null) {
+                metrics.onExecute(handler, container);
+            }
+
+            final InProgressChangeHandlers inProgressChangeHandlers = router.getInProgressChangeHandlers();
             if (from != null) {
                 if (isPush) {
-                    completeHandlerImmediately(from.getInstanceId());
+                    inProgressChangeHandlers.completeImmediately(from);
                 } else {
-                    abortOrComplete(from, to, handler);
+                    inProgressChangeHandlers.abortOrComplete(from, to, handler);
                 }
             }
 
             if (to != null) {
-                inProgressChangeHandlers.put(to.getInstanceId(), new ChangeHandlerData(handler, isPush));
+                inProgressChangeHandlers.put(to, handler, isPush);
             }
 
             for (ControllerChangeListener listener : listeners) {
@@ -187,7 +188,7 @@ public abstract class ControllerChangeHandler {
 
             final View toView;
             if (to != null) {
-                toView = to.inflate(container);
+                toView = to.inflate(container, metrics);
                 to.changeStarted(handler, toChangeType);
             } else {
                 toView = null;
@@ -209,7 +210,8 @@ public abstract class ControllerChangeHandler {
                     }
 
                     if (to != null) {
-                        inProgressChangeHandlers.remove(to.getInstanceId());
+                        // Looked up again, as the Router may have become part of another hierarchy during the change
+                        router.getInProgressChangeHandlers().remove(to);
                         to.changeEnded(handler, toChangeType);
                     }
 
@@ -227,6 +229,10 @@ public abstract class ControllerChangeHandler {
                     if (handler.removesFromViewOnPush() && from != null) {
                         from.setNeedsAttach(false);
                     }
+
+                    if (metrics != null) {
+                        metrics.onCompleted();
+                    }
                 }
             });
         }
@@ -249,14 +255,19 @@ public abstract class ControllerChangeHandler {
         @Nullable final ViewGroup container;
         @Nullable final ControllerChangeHandler changeHandler;
         @NonNull final List<ControllerChangeListener> listeners;
+        @NonNull final Router router;
+        @Nullable final ChangeMetrics metrics;
 
-        public ChangeTransaction(@Nullable Controller to, @Nullable Controller from, boolean isPush, @Nullable ViewGroup container, @Nullable ControllerChangeHandler changeHandler, @NonNull List<ControllerChangeListener> listeners) {
+        public ChangeTransaction(@Nullable Controller to, @Nullable Controller from, boolean isPush, @Nullable ViewGroup container, @Nullable ControllerChangeHandler changeHandler,
+                                 @NonNull List<ControllerChangeListener> listeners, @NonNull Router router, @Nullable ChangeMetrics metrics) {
             this.to = to;
             this.from = from;
             this.isPush = isPush;
             this.container = container;
             this.changeHandler = changeHandler;
             this.listeners = listeners;
+            this.router = router;
+            this.metrics = metrics;
         }
     }
 
@@ -298,14 +309,4 @@ public abstract class ControllerChangeHandler {
         void onChangeCompleted();
     }
 
-    private static class ChangeHandlerData {
-        public final ControllerChangeHandler changeHandler;
-        public final boolean isPush;
-
-        public ChangeHandlerData(ControllerChangeHandler changeHandler, boolean isPush) {
-            this.changeHandler = changeHandler;
-            this.isPush = isPush;
-        }
-    }
-
 }
@@ -0,0 +1,67 @@
+package com.bluelinelabs.conductor;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-class cache of the constructors used to re-create {@link Controller}s, so each class is only inspected
+ * reflectively once per process.
+ */
+final class ControllerConstructors {
+
+    private static final Map<Class<?>, ControllerConstructors> cache = new HashMap<>();
+
+    @NonNull final Class<?> controllerClass;
+    @Nullable final Constructor<?> bundleConstructor;
+    @Nullable final Constructor<?> defaultConstructor;
+
+    private ControllerConstructors(@NonNull Class<?> controllerClass) {
+        Constructor<?>[] constructors = controllerClass.getConstructors();
+        this.controllerClass = controllerClass;
+        bundleConstructor = getBundleConstructor(constructors);
+        defaultConstructor = getDefaultConstructor(constructors);
+    }
+
+    @NonNull
+    static ControllerConstructors forClass(@NonNull Class<?> controllerClass) {
+        synchronized (cache) {
+            ControllerConstructors constructors = cache.get(controllerClass);
+            if (constructors == null) {
+                constructors = new ControllerConstructors(controllerClass);
+                cache.put(controllerClass, constructors);
+            }
+            return constructors;
+        }
+    }
+
+    boolean hasRequiredConstructor() {
+        return bundleConstructor != null || defaultConstructor != null;
+    }
+
+    @Nullable
+    private static Constructor<?> getDefaultConstructor(@NonNull Constructor<?>[] constructors) {
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.getParameterTypes().length == 0) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private static Constructor<?> getBundleConstructor(@NonNull Constructor<?>[] constructors) {
+        for (Constructor<?> constructor : constructors) {
+            if (constructor.getParameterTypes().length == 1 && constructor.getParameterTypes()[0] == Bundle.class) {
+                return constructor;
+            }
+        }
+        return null;
+    }
+
+}
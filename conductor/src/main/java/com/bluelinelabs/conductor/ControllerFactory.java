@@ -0,0 +1,36 @@
+package com.bluelinelabs.conductor;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Creates {@link Controller}s by class name without using reflection. Conductor normally re-creates Controllers
+ * reflectively when restoring state, which requires them to have either a default constructor or one that takes
+ * a Bundle. Factories are intended to be generated (ex: by an annotation processor) and installed with
+ * {@link Conductor#setControllerFactory(ControllerFactory)} before any Routers are attached.
+ */
+public interface ControllerFactory {
+
+    /**
+     * Returns whether or not this factory is able to create the Controller class with the passed name. Controllers
+     * that can be created by the factory skip the reflective constructor check when they are instantiated.
+     *
+     * @param className The fully qualified name of the Controller class
+     */
+    boolean canCreate(@NonNull String className);
+
+    /**
+     * Creates a new instance of the Controller class with the passed name, or returns {@code null} if this factory
+     * does not know about it, in which case the Controller will be created reflectively. The Bundle constructor
+     * should be used if the Controller has one. If the default constructor is used instead, the args will be copied
+     * into the new Controller's args after it is returned.
+     *
+     * @param className The fully qualified name of the Controller class
+     * @param args      The args the Controller was originally created with, or {@code null} if there were none
+     */
+    @Nullable
+    Controller newInstance(@NonNull String className, @Nullable Bundle args);
+
+}
@@ -0,0 +1,87 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Orders {@link Controller}s of the same root {@link Router} the way a walk of the hierarchy would visit them.
+ * Parents come before their children, Controllers in the same Router go from the top of the backstack down and
+ * child Routers go in the order they were added to their host.
+ */
+final class ControllerHierarchyOrder {
+
+    private ControllerHierarchyOrder() { }
+
+    /**
+     * Sorts the passed Controllers in hierarchy order. Each Controller's position is looked up once up front, along
+     * with those of its parents, rather than on every comparison.
+     */
+    static void sort(@NonNull Controller[] controllers) {
+        if (controllers.length < 2) {
+            return;
+        }
+
+        final Map<Controller, int[]> positions = new IdentityHashMap<>();
+        for (Controller controller : controllers) {
+            getPosition(controller, positions);
+        }
+
+        Arrays.sort(controllers, new Comparator<Controller>() {
+            @Override
+            public int compare(Controller lhs, Controller rhs) {
+                return comparePositions(positions.get(lhs), positions.get(rhs));
+            }
+        });
+    }
+
+    /**
+     * Returns the Controller's position as the child Router index and backstack position of every Controller on
+     * the way down from the root Router to it.
+     */
+    @NonNull
+    private static int[] getPosition(@NonNull Controller controller, @NonNull Map<Controller, int[]> positions) {
+        int[] position = positions.get(controller);
+        if (position != null) {
+            return position;
+        }
+
+        Router router = controller.getRouter();
+        Controller parent = controller.getParentController();
+        int[] parentPosition = parent != null ? getPosition(parent, positions) : new int[0];
+
+        position = Arrays.copyOf(parentPosition, parentPosition.length + 2);
+        position[parentPosition.length] = parent != null ? parent.getChildRouters().indexOf(router) : 0;
+        position[parentPosition.length + 1] = getBackstackPosition(router, controller);
+        positions.put(controller, position);
+        return position;
+    }
+
+    private static int comparePositions(@NonNull int[] lhs, @NonNull int[] rhs) {
+        int length = Math.min(lhs.length, rhs.length);
+        for (int i = 0; i < length; i++) {
+            if (lhs[i] != rhs[i]) {
+                return lhs[i] < rhs[i] ? -1 : 1;
+            }
+        }
+        return lhs.length - rhs.length;
+    }
+
+    private static int getBackstackPosition(@Nullable Router router, @NonNull Controller controller) {
+        int position = 0;
+        if (router != null) {
+            for (RouterTransaction transaction : router.backstack) {
+                if (transaction.isHydrated() && transaction.controller() == controller) {
+                    break;
+                }
+                position++;
+            }
+        }
+        return position;
+    }
+
+}
@@ -28,6 +28,7 @@ class ControllerHostedRouter extends Router {
     @IdRes private int hostId;
     private String tag;
     private boolean isDetachFrozen;
+    private RouterHierarchyState detachedHierarchyState;
 
     ControllerHostedRouter() { }
 
@@ -54,7 +55,9 @@ class ControllerHostedRouter extends Router {
             this.container = container;
 
             for (RouterTransaction transaction : backstack) {
-                transaction.controller().setParentController(controller);
+                if (transaction.isHydrated()) {
+                    transaction.controller().setParentController(controller);
+                }
             }
 
             watchContainerAttach();
@@ -73,7 +76,7 @@ class ControllerHostedRouter extends Router {
             }
         }
         for (RouterTransaction transaction : backstack) {
-            if (transaction.controller().getView() != null) {
+            if (transaction.isHydrated() && transaction.controller().getView() != null) {
                 transaction.controller().detach(transaction.controller().getView(), true, false);
             }
         }
@@ -85,7 +88,9 @@ class ControllerHostedRouter extends Router {
     final void setDetachFrozen(boolean frozen) {
         isDetachFrozen = frozen;
         for (RouterTransaction transaction : backstack) {
-            transaction.controller().setDetachFrozen(frozen);
+            if (transaction.isHydrated()) {
+                transaction.controller().setDetachFrozen(frozen);
+            }
         }
     }
 
@@ -107,7 +112,9 @@ class ControllerHostedRouter extends Router {
     public void setBackstack(@NonNull List<RouterTransaction> newBackstack, @Nullable ControllerChangeHandler changeHandler) {
         if (isDetachFrozen) {
             for (RouterTransaction transaction : newBackstack) {
-                transaction.controller().setDetachFrozen(true);
+                if (transaction.isHydrated()) {
+                    transaction.controller().setDetachFrozen(true);
+                }
             }
         }
         super.setBackstack(newBackstack, changeHandler);
@@ -122,7 +129,7 @@ class ControllerHostedRouter extends Router {
         if (to != null && !hostController.isAttached()) {
             if (to.pushChangeHandler() == null || to.pushChangeHandler().removesFromViewOnPush()) {
                 for (RouterTransaction transaction : backstack) {
-                    transaction.controller().setNeedsAttach(false);
+                    transaction.setNeedsAttach(false);
                 }
             }
         }
@@ -224,9 +231,22 @@ class ControllerHostedRouter extends Router {
         tag = savedInstanceState.getString(KEY_TAG);
     }
 
+    @Override
+    void invalidateSavedState() {
+        super.invalidateSavedState();
+
+        if (hostController != null) {
+            hostController.invalidateSavedState();
+        }
+    }
+
     @Override
     void setRouterOnController(@NonNull Controller controller) {
         controller.setParentController(hostController);
+        if (isDetachFrozen) {
+            // Covers controllers that are restored after the router was frozen
+            controller.setDetachFrozen(true);
+        }
         super.setRouterOnController(controller);
     }
 
@@ -273,4 +293,26 @@ class ControllerHostedRouter extends Router {
         }
     }
 
+    @Override @NonNull
+    RouterHierarchyState getHierarchyState() {
+        Router rootRouter = getRootRouter();
+        if (rootRouter != this) {
+            return rootRouter.getHierarchyState();
+        }
+
+        // Not part of a hierarchy right now, so this is handed over once the host Controller is added to a Router
+        if (detachedHierarchyState == null) {
+            detachedHierarchyState = new RouterHierarchyState();
+        }
+        return detachedHierarchyState;
+    }
+
+    final void handOverDetachedState() {
+        Router rootRouter = getRootRouter();
+        if (detachedHierarchyState != null && rootRouter != this) {
+            detachedHierarchyState.handOverTo(rootRouter.getHierarchyState());
+            detachedHierarchyState = null;
+        }
+    }
+
 }
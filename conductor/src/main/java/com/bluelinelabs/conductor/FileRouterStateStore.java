@@ -0,0 +1,175 @@
+package com.bluelinelabs.conductor;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Parcel;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * A {@link RouterStateStore} that writes each entry to its own file, backed by a directory in the app's cache
+ * directory by default. Entries are written and read on the main thread while state is being saved and restored.
+ * <p>
+ * Saved state doesn't survive a reboot, so files left over from before the device last booted are deleted the first
+ * time anything is written to the store.
+ */
+public class FileRouterStateStore implements RouterStateStore {
+
+    private static final String TAG = "FileRouterStateStore";
+    private static final String DIRECTORY_NAME = "conductor-router-state";
+
+    public static final int DEFAULT_MAX_INLINE_DEPTH = 10;
+
+    /**
+     * Used as the maximum number of inline bytes to keep every entry above the maximum inline depth in the Bundle,
+     * which avoids having to measure their size on every save.
+     */
+    public static final int NO_BYTE_LIMIT = Integer.MAX_VALUE;
+
+    private final File directory;
+    private final int maxInlineDepth;
+    private final int maxInlineBytes;
+    private boolean sweptFilesFromBeforeBoot;
+
+    /**
+     * Creates a store in the app's cache directory that keeps the top {@link #DEFAULT_MAX_INLINE_DEPTH} entries of
+     * each backstack in the Bundle, regardless of their size.
+     */
+    public FileRouterStateStore(@NonNull Context context) {
+        this(new File(context.getCacheDir(), DIRECTORY_NAME), DEFAULT_MAX_INLINE_DEPTH, NO_BYTE_LIMIT);
+    }
+
+    /**
+     * @param directory      The directory entries will be written to
+     * @param maxInlineDepth The number of entries, counted from the top of each backstack, that are always kept in the
+     *                       saved state Bundle. The top entry is always kept regardless of this value.
+     * @param maxInlineBytes The approximate number of bytes of each backstack's entries that may be kept in the
+     *                       saved state Bundle, or {@link #NO_BYTE_LIMIT}
+     */
+    public FileRouterStateStore(@NonNull File directory, int maxInlineDepth, int maxInlineBytes) {
+        this.directory = directory;
+        this.maxInlineDepth = maxInlineDepth;
+        this.maxInlineBytes = maxInlineBytes;
+    }
+
+    @Override
+    public int getMaxInlineDepth() {
+        return maxInlineDepth;
+    }
+
+    @Override
+    public int getMaxInlineBytes() {
+        return maxInlineBytes;
+    }
+
+    @Override
+    public boolean write(@NonNull String key, @NonNull Bundle state) {
+        if (!sweptFilesFromBeforeBoot) {
+            sweptFilesFromBeforeBoot = true;
+            deleteFilesFromBeforeBoot(directory);
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return false;
+        }
+
+        Parcel parcel = Parcel.obtain();
+        FileOutputStream outputStream = null;
+        try {
+            parcel.writeBundle(state);
+            outputStream = new FileOutputStream(getFile(key));
+            outputStream.write(parcel.marshall());
+            return true;
+        } catch (Exception e) {
+            // Bundles holding Binders or file descriptors can't be marshalled; those simply stay in the saved state
+            Log.w(TAG, "Unable to write state for " + key, e);
+            return false;
+        } finally {
+            parcel.recycle();
+            closeQuietly(outputStream);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Bundle read(@NonNull String key) {
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        Parcel parcel = Parcel.obtain();
+        FileInputStream inputStream = null;
+        try {
+            byte[] bytes = new byte[(int) file.length()];
+            inputStream = new FileInputStream(file);
+
+            int offset = 0;
+            while (offset < bytes.length) {
+                int read = inputStream.read(bytes, offset, bytes.length - offset);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+                offset += read;
+            }
+
+            parcel.unmarshall(bytes, 0, bytes.length);
+            parcel.setDataPosition(0);
+            return parcel.readBundle(getClass().getClassLoader());
+        } catch (Exception e) {
+            Log.w(TAG, "Unable to read state for " + key, e);
+            return null;
+        } finally {
+            parcel.recycle();
+            closeQuietly(inputStream);
+        }
+    }
+
+    @Override
+    public void delete(@NonNull String key) {
+        //noinspection ResultOfMethodCallIgnored
+        getFile(key).delete();
+    }
+
+    @NonNull
+    private File getFile(@NonNull String key) {
+        return new File(directory, key);
+    }
+
+    /**
+     * Deletes the entries that were written before the device last booted. Those belonged to processes whose state
+     * can never be restored again, but that were killed or finished without deleting them.
+     */
+    private static void deleteFilesFromBeforeBoot(@NonNull File directory) {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long bootTime = System.currentTimeMillis() - SystemClock.elapsedRealtime();
+        for (File file : files) {
+            if (file.lastModified() < bootTime) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+
+    private static void closeQuietly(@Nullable Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) { }
+        }
+    }
+
+}
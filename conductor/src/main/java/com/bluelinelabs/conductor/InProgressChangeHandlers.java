@@ -0,0 +1,69 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The change handlers that are currently running for the {@link Controller}s of a root {@link Router} and all of its
+ * child Routers, keyed by the Controller being changed to.
+ */
+final class InProgressChangeHandlers {
+
+    private final Map<Controller, ChangeHandlerData> changeHandlers = new IdentityHashMap<>();
+
+    void put(@NonNull Controller controller, @NonNull ControllerChangeHandler changeHandler, boolean isPush) {
+        changeHandlers.put(controller, new ChangeHandlerData(changeHandler, isPush));
+    }
+
+    void remove(@NonNull Controller controller) {
+        changeHandlers.remove(controller);
+    }
+
+    /**
+     * Completes the change handler that is running for the passed Controller, if there is one.
+     *
+     * @return Whether or not a change handler was running
+     */
+    boolean completeImmediately(@NonNull Controller controller) {
+        ChangeHandlerData changeHandlerData = changeHandlers.remove(controller);
+        if (changeHandlerData != null) {
+            changeHandlerData.changeHandler.completeImmediately();
+            return true;
+        }
+        return false;
+    }
+
+    void abortOrComplete(@NonNull Controller toAbort, @Nullable Controller newController, @NonNull ControllerChangeHandler newChangeHandler) {
+        ChangeHandlerData changeHandlerData = changeHandlers.remove(toAbort);
+        if (changeHandlerData != null) {
+            if (changeHandlerData.isPush) {
+                changeHandlerData.changeHandler.onAbortPush(newChangeHandler, newController);
+            } else {
+                changeHandlerData.changeHandler.completeImmediately();
+            }
+        }
+    }
+
+    void clear() {
+        changeHandlers.clear();
+    }
+
+    void moveTo(@NonNull InProgressChangeHandlers inProgressChangeHandlers) {
+        inProgressChangeHandlers.changeHandlers.putAll(changeHandlers);
+        changeHandlers.clear();
+    }
+
+    private static class ChangeHandlerData {
+        final ControllerChangeHandler changeHandler;
+        final boolean isPush;
+
+        ChangeHandlerData(ControllerChangeHandler changeHandler, boolean isPush) {
+            this.changeHandler = changeHandler;
+            this.isPush = isPush;
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates {@link Controller} instance ids. Each id is a random tag that is chosen once per process followed by a
+ * counter, which is much cheaper to create, compare and hash than a random UUID while still being unique across
+ * process death. Ids restored from saved state may be in any format, including the UUIDs used by older versions.
+ */
+final class InstanceIds {
+
+    private static final String PROCESS_TAG = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, Character.MAX_RADIX);
+    private static final AtomicLong nextId = new AtomicLong();
+
+    private InstanceIds() { }
+
+    @NonNull
+    static String next() {
+        return PROCESS_TAG + '-' + Long.toString(nextId.getAndIncrement(), Character.MAX_RADIX);
+    }
+
+}
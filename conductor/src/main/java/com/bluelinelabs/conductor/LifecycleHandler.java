@@ -2,14 +2,19 @@ package com.bluelinelabs.conductor;
 
 import android.annotation.TargetApi;
 import android.app.Activity;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentSender;
+import android.content.res.Configuration;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.SparseArray;
+import android.util.SparseBooleanArray;
 import android.view.Menu;
 import android.view.MenuInflater;
 import android.view.MenuItem;
@@ -24,6 +29,7 @@ import androidx.fragment.app.FragmentManager;
 import com.bluelinelabs.conductor.internal.StringSparseArrayParceler;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -43,11 +49,49 @@ public class LifecycleHandler extends Fragment {
 
     private SparseArray<String> permissionRequestMap = new SparseArray<>();
     private SparseArray<String> activityRequestMap = new SparseArray<>();
+    // Reverse of activityRequestMap, so a Controller's request codes can be dropped without scanning every request
+    private final Map<String, SparseBooleanArray> activityRequestCodes = new HashMap<>();
     private ArrayList<PendingPermissionRequest> pendingPermissionRequests = new ArrayList<>();
 
-    private final Map<Integer, ActivityHostedRouter> routerMap = new HashMap<>();
+    private final SparseArray<ActivityHostedRouter> routerMap = new SparseArray<>();
+    // Unmodifiable snapshot of the routers, rebuilt only when one is added so lifecycle callbacks don't allocate
+    private List<Router> routers = Collections.emptyList();
     private final Bundle localState = new Bundle();
 
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private boolean optionsMenuInvalidationPending;
+    // Invalidations that happen while the menu is already waiting to be invalidated are collapsed into that one
+    private final Runnable invalidateOptionsMenuRunnable = new Runnable() {
+        @Override
+        public void run() {
+            optionsMenuInvalidationPending = false;
+
+            Activity activity = getActivity();
+            if (activity != null) {
+                activity.invalidateOptionsMenu();
+            }
+        }
+    };
+
+    private Context memoryCallbacksContext;
+    private final ComponentCallbacks2 memoryCallbacks = new ComponentCallbacks2() {
+        @Override
+        public void onTrimMemory(int level) {
+            // UI_HIDDEN only means the app went to the background, which shouldn't cost it the views it's about to reuse
+            if (level == TRIM_MEMORY_RUNNING_CRITICAL || level >= TRIM_MEMORY_BACKGROUND) {
+                clearRecycledViews();
+            }
+        }
+
+        @Override
+        public void onLowMemory() {
+            clearRecycledViews();
+        }
+
+        @Override
+        public void onConfigurationChanged(@NonNull Configuration newConfig) { }
+    };
+
     @NonNull
     public static LifecycleHandler install(@NonNull AppCompatActivity activity) {
         FragmentManager fragmentManager = activity.getSupportFragmentManager();
@@ -61,6 +105,12 @@ public class LifecycleHandler extends Fragment {
         }
     }
 
+    private void clearRecycledViews() {
+        for (Router router : routers) {
+            router.getViewPool().clear();
+        }
+    }
+
     private static int getRouterHashKey(@NonNull ViewGroup viewGroup) {
         return viewGroup.getId();
     }
@@ -82,6 +132,7 @@ public class LifecycleHandler extends Fragment {
                 router.restoreInstanceState(routerState);
             }
             routerMap.put(getRouterHashKey(container), router);
+            updateRouters();
         } else {
             router.setHost(this, container);
         }
@@ -91,7 +142,24 @@ public class LifecycleHandler extends Fragment {
 
     @NonNull
     public List<Router> getRouters() {
-        return new ArrayList<Router>(routerMap.values());
+        return new ArrayList<>(routers);
+    }
+
+    /**
+     * Returns the shared, unmodifiable snapshot of this handler's routers that's used for dispatching. It is safe to
+     * keep iterating it while routers are added.
+     */
+    @NonNull
+    List<Router> getRouterSnapshot() {
+        return routers;
+    }
+
+    private void updateRouters() {
+        List<Router> routers = new ArrayList<>(routerMap.size());
+        for (int i = 0; i < routerMap.size(); i++) {
+            routers.add(routerMap.valueAt(i));
+        }
+        this.routers = Collections.unmodifiableList(routers);
     }
 
     @Override
@@ -114,17 +182,22 @@ public class LifecycleHandler extends Fragment {
                 localState.putAll(savedInstanceState.getBundle(KEY_LOCAL_STATE));
             }
 
-            StringSparseArrayParceler permissionParcel = savedInstanceState.getParcelable(KEY_PERMISSION_REQUEST_CODES);
+            // Request codes and pending permission requests are saved along with the rest of the local state
+            StringSparseArrayParceler permissionParcel = localState.getParcelable(KEY_PERMISSION_REQUEST_CODES);
             permissionRequestMap = permissionParcel != null ? permissionParcel.getStringSparseArray() : new SparseArray<String>();
 
-            StringSparseArrayParceler activityParcel = savedInstanceState.getParcelable(KEY_ACTIVITY_REQUEST_CODES);
+            StringSparseArrayParceler activityParcel = localState.getParcelable(KEY_ACTIVITY_REQUEST_CODES);
             activityRequestMap = activityParcel != null ? activityParcel.getStringSparseArray() : new SparseArray<String>();
+            activityRequestCodes.clear();
+            for (int i = 0; i < activityRequestMap.size(); i++) {
+                addActivityRequestCode(activityRequestMap.valueAt(i), activityRequestMap.keyAt(i));
+            }
 
-            ArrayList<PendingPermissionRequest> pendingRequests = savedInstanceState.getParcelableArrayList(KEY_PENDING_PERMISSION_REQUESTS);
+            ArrayList<PendingPermissionRequest> pendingRequests = localState.getParcelableArrayList(KEY_PENDING_PERMISSION_REQUESTS);
             pendingPermissionRequests = pendingRequests != null ? pendingRequests : new ArrayList<PendingPermissionRequest>();
         }
 
-        for (ActivityHostedRouter router : new ArrayList<>(routerMap.values())) {
+        for (Router router : getRouterSnapshot()) {
             router.onContextAvailable();
         }
     }
@@ -136,7 +209,7 @@ public class LifecycleHandler extends Fragment {
         hasPreparedForHostDetach = false;
 
         Activity activity = getActivity();
-        if (activity != null) for (Router router : getRouters()) {
+        if (activity != null) for (Router router : getRouterSnapshot()) {
             router.onActivityStarted(activity);
         }
     }
@@ -146,7 +219,7 @@ public class LifecycleHandler extends Fragment {
         super.onResume();
 
         Activity activity = getActivity();
-        if (activity != null) for (Router router : getRouters()) {
+        if (activity != null) for (Router router : getRouterSnapshot()) {
             router.onActivityResumed(activity);
         }
     }
@@ -157,6 +230,11 @@ public class LifecycleHandler extends Fragment {
 
         destroyed = false;
 
+        if (memoryCallbacksContext == null) {
+            memoryCallbacksContext = context.getApplicationContext();
+            memoryCallbacksContext.registerComponentCallbacks(memoryCallbacks);
+        }
+
         if (!attached) {
             attached = true;
 
@@ -166,7 +244,7 @@ public class LifecycleHandler extends Fragment {
             }
         }
 
-        for (ActivityHostedRouter router : new ArrayList<>(routerMap.values())) {
+        for (Router router : getRouterSnapshot()) {
             router.onContextAvailable();
         }
     }
@@ -190,7 +268,7 @@ public class LifecycleHandler extends Fragment {
         localState.putParcelable(KEY_ACTIVITY_REQUEST_CODES, new StringSparseArrayParceler(activityRequestMap));
         localState.putParcelableArrayList(KEY_PENDING_PERMISSION_REQUESTS, pendingPermissionRequests);
 
-        for (Router router : getRouters()) {
+        for (Router router : getRouterSnapshot()) {
             Bundle bundle = new Bundle();
             router.saveInstanceState(bundle);
             localState.putBundle(KEY_ROUTER_STATE_PREFIX + router.getContainerId(), bundle);
@@ -204,7 +282,7 @@ public class LifecycleHandler extends Fragment {
         super.onPause();
 
         Activity activity = getActivity();
-        if (activity != null) for (Router router : getRouters()) {
+        if (activity != null) for (Router router : getRouterSnapshot()) {
             router.onActivityPaused(activity);
         }
     }
@@ -216,7 +294,7 @@ public class LifecycleHandler extends Fragment {
         prepareForHostDetachIfNeeded();
 
         Activity activity = getActivity();
-        if (activity != null) for (Router router : getRouters()) {
+        if (activity != null) for (Router router : getRouterSnapshot()) {
             router.onActivityStopped(activity);
         }
     }
@@ -227,13 +305,22 @@ public class LifecycleHandler extends Fragment {
 
         destroyRouters(false);
         routerMap.clear();
+        routers = Collections.emptyList();
+
+        handler.removeCallbacks(invalidateOptionsMenuRunnable);
+        optionsMenuInvalidationPending = false;
+
+        if (memoryCallbacksContext != null) {
+            memoryCallbacksContext.unregisterComponentCallbacks(memoryCallbacks);
+            memoryCallbacksContext = null;
+        }
     }
 
     @Override
     public void onActivityResult(int requestCode, int resultCode, Intent data) {
         String instanceId = activityRequestMap.get(requestCode);
         if (instanceId != null) {
-            for (Router router : getRouters()) {
+            for (Router router : getRouterSnapshot()) {
                 router.onActivityResult(instanceId, requestCode, resultCode, data);
             }
         }
@@ -243,7 +330,7 @@ public class LifecycleHandler extends Fragment {
     public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
         String instanceId = permissionRequestMap.get(requestCode);
         if (instanceId != null) {
-            for (Router router : getRouters()) {
+            for (Router router : getRouterSnapshot()) {
                 router.onRequestPermissionsResult(instanceId, requestCode, permissions, grantResults);
             }
         }
@@ -251,7 +338,7 @@ public class LifecycleHandler extends Fragment {
 
     @Override
     public boolean shouldShowRequestPermissionRationale(@NonNull String permission) {
-        for (Router router : getRouters()) {
+        for (Router router : getRouterSnapshot()) {
             Boolean handled = router.handleRequestedPermission(permission);
             if (handled != null) {
                 return handled;
@@ -263,21 +350,21 @@ public class LifecycleHandler extends Fragment {
 
     @Override
     public void onCreateOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
-        for (Router router : getRouters()) {
+        for (Router router : getRouterSnapshot()) {
             router.onCreateOptionsMenu(menu, inflater);
         }
     }
 
     @Override
     public void onPrepareOptionsMenu(@NonNull Menu menu) {
-        for (Router router : getRouters()) {
+        for (Router router : getRouterSnapshot()) {
             router.onPrepareOptionsMenu(menu);
         }
     }
 
     @Override
     public boolean onOptionsItemSelected(@NonNull MenuItem item) {
-        for (Router router : getRouters()) {
+        for (Router router : getRouterSnapshot()) {
             if (router.onOptionsItemSelected(item)) {
                 return true;
             }
@@ -287,17 +374,46 @@ public class LifecycleHandler extends Fragment {
     }
 
     public void registerForActivityResult(@NonNull String instanceId, int requestCode) {
+        String previousInstanceId = activityRequestMap.get(requestCode);
+        if (previousInstanceId != null && !previousInstanceId.equals(instanceId)) {
+            SparseBooleanArray previousRequestCodes = activityRequestCodes.get(previousInstanceId);
+            if (previousRequestCodes != null) {
+                previousRequestCodes.delete(requestCode);
+                if (previousRequestCodes.size() == 0) {
+                    activityRequestCodes.remove(previousInstanceId);
+                }
+            }
+        }
+
         activityRequestMap.put(requestCode, instanceId);
+        addActivityRequestCode(instanceId, requestCode);
     }
 
     public void unregisterForActivityResults(@NonNull String instanceId) {
-        for (int i = activityRequestMap.size() - 1; i >= 0; i--) {
-            if (instanceId.equals(activityRequestMap.get(activityRequestMap.keyAt(i)))) {
-                activityRequestMap.removeAt(i);
+        SparseBooleanArray requestCodes = activityRequestCodes.remove(instanceId);
+        if (requestCodes != null) {
+            for (int i = 0; i < requestCodes.size(); i++) {
+                int requestCode = requestCodes.keyAt(i);
+                if (instanceId.equals(activityRequestMap.get(requestCode))) {
+                    activityRequestMap.remove(requestCode);
+                }
             }
         }
     }
 
+    boolean hasActivityRequestCodes(@NonNull String instanceId) {
+        return activityRequestCodes.containsKey(instanceId);
+    }
+
+    private void addActivityRequestCode(@NonNull String instanceId, int requestCode) {
+        SparseBooleanArray requestCodes = activityRequestCodes.get(instanceId);
+        if (requestCodes == null) {
+            requestCodes = new SparseBooleanArray(1);
+            activityRequestCodes.put(instanceId, requestCodes);
+        }
+        requestCodes.put(requestCode, true);
+    }
+
     public void startActivityForResult(@NonNull String instanceId, @NonNull Intent intent, int requestCode) {
         registerForActivityResult(instanceId, requestCode);
         startActivityForResult(intent, requestCode);
@@ -329,9 +445,9 @@ public class LifecycleHandler extends Fragment {
     }
 
     public void invalidateOptionsMenu() {
-        Activity activity = getActivity();
-        if (activity != null) {
-            activity.invalidateOptionsMenu();
+        if (!optionsMenuInvalidationPending && getActivity() != null) {
+            optionsMenuInvalidationPending = true;
+            handler.post(invalidateOptionsMenuRunnable);
         }
     }
 
@@ -341,7 +457,7 @@ public class LifecycleHandler extends Fragment {
 
             Activity activity = getActivity();
             if (activity != null) {
-                for (Router router : getRouters()) {
+                for (Router router : getRouterSnapshot()) {
                     router.onActivityDestroyed(activity, configurationChange);
                 }
             }
@@ -352,7 +468,7 @@ public class LifecycleHandler extends Fragment {
         if (!hasPreparedForHostDetach) {
             hasPreparedForHostDetach = true;
 
-            for (Router router : getRouters()) {
+            for (Router router : getRouterSnapshot()) {
                 router.prepareForHostDetach();
             }
         }
@@ -0,0 +1,52 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The {@link Controller}s of a root {@link Router} and all of its child Routers that currently contribute to the
+ * options menu, meaning they're attached, have an options menu and haven't hidden it. Menu callbacks are dispatched
+ * to these in the same order a walk of the hierarchy would visit them, without visiting anything else.
+ */
+final class OptionsMenuRegistry {
+
+    private static final Controller[] NO_CONTROLLERS = new Controller[0];
+
+    private final Set<Controller> controllers = new LinkedHashSet<>();
+
+    // Sorted snapshot, rebuilt only when Controllers are added or removed or their order may have changed
+    private Controller[] snapshot = NO_CONTROLLERS;
+
+    void add(@NonNull Controller controller) {
+        if (controllers.add(controller)) {
+            snapshot = null;
+        }
+    }
+
+    void remove(@NonNull Controller controller) {
+        if (controllers.remove(controller)) {
+            snapshot = null;
+        }
+    }
+
+    /**
+     * Called when a backstack in the hierarchy changed, since that may have changed the order of the registered
+     * Controllers without adding or removing any.
+     */
+    void invalidateOrder() {
+        snapshot = null;
+    }
+
+    @NonNull
+    Controller[] getControllers() {
+        if (snapshot == null) {
+            Controller[] sorted = controllers.toArray(new Controller[controllers.size()]);
+            ControllerHierarchyOrder.sort(sorted);
+            snapshot = sorted;
+        }
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.bluelinelabs.conductor;
+
+import android.view.Choreographer;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Runs the changes that a root {@link Router} and all of its child Routers had to put off until their containers
+ * were fully attached. Everything that's pending is run from a single frame callback in the order the changes were
+ * queued, so a navigation that spans several Routers lands in one frame. Changes of a Router whose container still
+ * isn't fully attached when the frame comes are held back until it is.
+ */
+final class PendingChangeScheduler implements Choreographer.FrameCallback {
+
+    // One entry for every queued change, naming the Router it's queued on
+    private final List<Router> queue = new ArrayList<>();
+    // Entries of Routers that were skipped because their containers weren't fully attached yet
+    private final List<Router> waiting = new ArrayList<>();
+    private boolean frameScheduled;
+    private boolean running;
+
+    void schedule(@NonNull Router router) {
+        queue.add(router);
+
+        // Changes queued while the others are running are picked up in the same frame
+        if (!frameScheduled && !running) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Queues up the entries that were held back for the passed Router, which must now have a fully attached container.
+     */
+    void onContainerAttached(@NonNull Router router) {
+        int entries = 0;
+        for (Iterator<Router> iterator = waiting.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == router) {
+                iterator.remove();
+                entries++;
+            }
+        }
+
+        for (int i = 0; i < entries; i++) {
+            schedule(router);
+        }
+    }
+
+    /**
+     * Drops every entry of the passed Router. Only to be used when its pending changes have been dropped as well.
+     */
+    void cancel(@NonNull Router router) {
+        queue.removeAll(Collections.singleton(router));
+        waiting.removeAll(Collections.singleton(router));
+    }
+
+    /**
+     * Moves everything that's queued over to the passed scheduler, which runs it from its own frame callback.
+     */
+    void moveTo(@NonNull PendingChangeScheduler scheduler) {
+        if (frameScheduled) {
+            frameScheduled = false;
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        for (Router router : queue) {
+            scheduler.schedule(router);
+        }
+        queue.clear();
+
+        scheduler.waiting.addAll(waiting);
+        waiting.clear();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+
+        running = true;
+        try {
+            // We're intentionally using dynamic size checking (list.size()) here so we can account for changes
+            // that occur during this loop (ex: if a controller is popped from within onAttach)
+            for (int i = 0; i < queue.size(); i++) {
+                Router router = queue.get(i);
+                if (router.containerFullyAttached) {
+                    router.performNextPendingControllerChange();
+                } else {
+                    // Removing views from a container that isn't fully attached can crash within ViewGroup (details
+                    // on issue #287), so this waits for the Router to report that its container is attached
+                    waiting.add(router);
+                }
+            }
+        } finally {
+            queue.clear();
+            running = false;
+        }
+    }
+
+}
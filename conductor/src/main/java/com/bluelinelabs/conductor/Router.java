@@ -23,8 +23,12 @@ import com.bluelinelabs.conductor.internal.TransactionIndexer;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A Router implements navigation and backstack handling for {@link Controller}s. Router objects are attached
@@ -38,15 +42,67 @@ public abstract class Router {
 
     final Backstack backstack = new Backstack();
     private final List<ControllerChangeListener> changeListeners = new ArrayList<>();
+    private final List<ConductorMetrics> metricsListeners = new ArrayList<>();
     private final List<ChangeTransaction> pendingControllerChanges = new ArrayList<>();
     final List<Controller> destroyingControllers = new ArrayList<>();
 
+    // Index of every transaction in this router's hierarchy, keyed by controller instance id. Only maintained
+    // when this is the root router. It's built the first time it's needed and then kept up to date with each
+    // transaction that's added to or removed from a backstack anywhere in the hierarchy.
+    private final Map<String, RouterTransaction> hierarchyIndex = new HashMap<>();
+    private boolean hierarchyIndexValid = false;
+
+    // The backstack state from the last save, reused until something in this router changes. Only kept when
+    // incremental state saving is enabled and none of this router's controllers are attached.
+    private Bundle lastSavedBackstackState;
+
     private boolean popsLastView = false;
     boolean containerFullyAttached = false;
     boolean isActivityStopped = false;
 
     ViewGroup container;
 
+    Router() {
+        backstack.setOnBackstackChangedListener(new Backstack.OnBackstackChangedListener() {
+            @Override
+            public void onBackstackChanged() {
+                invalidateSavedState();
+
+                RouterHierarchyState hierarchyState = getHierarchyState();
+                hierarchyState.activityCallbackRegistry.invalidateOrder();
+                hierarchyState.optionsMenuRegistry.invalidateOrder();
+            }
+
+            @Override
+            public void onTransactionAdded(@NonNull RouterTransaction transaction) {
+                Router rootRouter = getRootRouter();
+                if (rootRouter.hierarchyIndexValid) {
+                    rootRouter.addToHierarchyIndex(transaction);
+                }
+            }
+
+            @Override
+            public void onTransactionRemoved(@NonNull RouterTransaction transaction) {
+                Router rootRouter = getRootRouter();
+                if (rootRouter.hierarchyIndexValid) {
+                    rootRouter.removeFromHierarchyIndex(transaction);
+                }
+            }
+
+            @Override
+            public void onTransactionHydrated(@NonNull RouterTransaction transaction) {
+                setRouterOnController(transaction.controller());
+
+                // Child routers restored along with the controller couldn't reach the root until now
+                Router rootRouter = getRootRouter();
+                if (rootRouter.hierarchyIndexValid) {
+                    rootRouter.addToHierarchyIndex(transaction);
+                }
+                invalidateSavedState();
+            }
+        });
+    }
+
     /**
      * Returns this Router's host Activity or {@code null} if it has either not yet been attached to
      * an Activity or if the Activity has been destroyed.
@@ -142,17 +198,20 @@ public abstract class Router {
             ControllerChangeHandler topPushHandler = topTransaction != null ? topTransaction.pushChangeHandler() : null;
             final boolean needsNextTransactionAttach = topPushHandler != null ? !topPushHandler.removesFromViewOnPush() : false;
 
-            while (iterator.hasNext()) {
-                RouterTransaction transaction = iterator.next();
-                if (transaction.controller() == controller) {
-                    trackDestroyingController(transaction);
-                    iterator.remove();
-                    removedTransaction = transaction;
-                } else if (removedTransaction != null) {
-                    if (needsNextTransactionAttach && !transaction.controller().isAttached()) {
-                        nextTransaction = transaction;
+            if (backstack.contains(controller)) {
+                while (iterator.hasNext()) {
+                    RouterTransaction transaction = iterator.next();
+                    if (transaction.isHydrated() && transaction.controller() == controller) {
+                        trackDestroyingController(transaction);
+                        iterator.remove();
+                        transaction.deleteStoredState();
+                        removedTransaction = transaction;
+                    } else if (removedTransaction != null) {
+                        if (needsNextTransactionAttach && !transaction.controller().isAttached()) {
+                            nextTransaction = transaction;
+                        }
+                        break;
                     }
-                    break;
                 }
             }
 
@@ -232,7 +291,9 @@ public abstract class Router {
                     if (changeType == ControllerChangeType.POP_EXIT) {
                         for (int i = poppedControllers.size() - 1; i > 0; i--) {
                             RouterTransaction transaction = poppedControllers.get(i);
-                            performControllerChange(null, transaction, true, new SimpleSwapChangeHandler());
+                            if (transaction.isHydrated()) {
+                                performControllerChange(null, transaction, true, new SimpleSwapChangeHandler());
+                            }
                         }
                     }
                 }
@@ -253,7 +314,10 @@ public abstract class Router {
      */
     @NonNull
     public Router setPopsLastView(boolean popsLastView) {
-        this.popsLastView = popsLastView;
+        if (this.popsLastView != popsLastView) {
+            this.popsLastView = popsLastView;
+            invalidateSavedState();
+        }
         return this;
     }
 
@@ -314,11 +378,10 @@ public abstract class Router {
     public boolean popToTag(@NonNull String tag, @Nullable ControllerChangeHandler changeHandler) {
         ThreadUtils.ensureMainThread();
 
-        for (RouterTransaction transaction : backstack) {
-            if (tag.equals(transaction.tag())) {
-                popToTransaction(transaction, changeHandler);
-                return true;
-            }
+        RouterTransaction transaction = backstack.getTransactionWithTag(tag);
+        if (transaction != null) {
+            popToTransaction(transaction, changeHandler);
+            return true;
         }
         return false;
     }
@@ -345,10 +408,22 @@ public abstract class Router {
      */
     @Nullable
     public Controller getControllerWithInstanceId(@NonNull String instanceId) {
-        for (RouterTransaction transaction : backstack) {
-            Controller controllerWithId = transaction.controller().findController(instanceId);
-            if (controllerWithId != null) {
-                return controllerWithId;
+        Controller controller = backstack.getControllerWithInstanceId(instanceId);
+        if (controller != null) {
+            return controller;
+        }
+
+        Router rootRouter = getRootRouter();
+        RouterTransaction transaction = rootRouter.getIndexedTransaction(instanceId);
+        controller = transaction != null ? transaction.controller() : null;
+        if (controller == null || rootRouter == this) {
+            return controller;
+        }
+
+        // The root index spans the whole hierarchy, so make sure the match actually lives below this router
+        for (Controller ancestor = controller; ancestor != null; ancestor = ancestor.getParentController()) {
+            if (ancestor.getRouter() == this) {
+                return controller;
             }
         }
         return null;
@@ -362,12 +437,8 @@ public abstract class Router {
      */
     @Nullable
     public Controller getControllerWithTag(@NonNull String tag) {
-        for (RouterTransaction transaction : backstack) {
-            if (tag.equals(transaction.tag())) {
-                return transaction.controller();
-            }
-        }
-        return null;
+        RouterTransaction transaction = backstack.getTransactionWithTag(tag);
+        return transaction != null ? transaction.controller() : null;
     }
 
     /**
@@ -401,50 +472,52 @@ public abstract class Router {
     @SuppressWarnings("WeakerAccess")
     @UiThread
     public void setBackstack(@NonNull List<RouterTransaction> newBackstack, @Nullable ControllerChangeHandler changeHandler) {
+        ConductorTracer tracer = Tracing.begin("Router.setBackstack", this);
+        try {
+            performSetBackstack(newBackstack, changeHandler);
+        } finally {
+            Tracing.end(tracer);
+        }
+    }
+
+    private void performSetBackstack(@NonNull List<RouterTransaction> newBackstack, @Nullable ControllerChangeHandler changeHandler) {
         ThreadUtils.ensureMainThread();
 
         List<RouterTransaction> oldTransactions = getBackstack();
         List<RouterTransaction> oldVisibleTransactions = getVisibleTransactions(backstack.iterator(), false);
 
+        List<RouterTransaction> reverseNewBackstack = new ArrayList<>(newBackstack);
+        Collections.reverse(reverseNewBackstack);
+        List<RouterTransaction> newVisibleTransactions = getVisibleTransactions(reverseNewBackstack.iterator(), false);
+
+        BackstackDiff diff = BackstackDiff.calculate(oldTransactions, oldVisibleTransactions, newBackstack, newVisibleTransactions);
+
         removeAllExceptVisibleAndUnowned();
         ensureOrderedTransactionIndices(newBackstack);
-        ensureNoDuplicateControllers(newBackstack);
 
         backstack.setBackstack(newBackstack);
 
-        List<RouterTransaction> transactionsToBeRemoved = new ArrayList<>();
-        for (RouterTransaction oldTransaction : oldTransactions) {
-            boolean contains = false;
-            for (RouterTransaction newTransaction : newBackstack) {
-                if (oldTransaction.controller() == newTransaction.controller()) {
-                    contains = true;
-                    break;
-                }
-            }
-
-            if (!contains) {
-                // Inform the controller that it will be destroyed soon
-                oldTransaction.controller().isBeingDestroyed = true;
-                transactionsToBeRemoved.add(oldTransaction);
+        // Inform the removed controllers that they will be destroyed soon
+        for (RouterTransaction removedTransaction : diff.removed) {
+            if (removedTransaction.isHydrated()) {
+                removedTransaction.controller().isBeingDestroyed = true;
             }
         }
 
-        // Ensure all new controllers have a valid router set
+        // Ensure all new controllers have a valid router set. Ones that haven't been restored yet get it once they are.
         Iterator<RouterTransaction> backstackIterator = backstack.reverseIterator();
         while (backstackIterator.hasNext()) {
             RouterTransaction transaction = backstackIterator.next();
             transaction.onAttachedToRouter();
-            setRouterOnController(transaction.controller());
+            if (transaction.isHydrated()) {
+                setRouterOnController(transaction.controller());
+            }
         }
 
         if (newBackstack.size() > 0) {
-            List<RouterTransaction> reverseNewBackstack = new ArrayList<>(newBackstack);
-            Collections.reverse(reverseNewBackstack);
-            List<RouterTransaction> newVisibleTransactions = getVisibleTransactions(reverseNewBackstack.iterator(), false);
-            boolean newRootRequiresPush = !(newVisibleTransactions.size() > 0 && oldTransactions.contains(newVisibleTransactions.get(0)));
+            boolean newRootRequiresPush = diff.newRootRequiresPush();
 
-            boolean visibleTransactionsChanged = !backstacksAreEqual(newVisibleTransactions, oldVisibleTransactions);
-            if (visibleTransactionsChanged) {
+            if (diff.visibleTransactionsChanged()) {
                 RouterTransaction oldRootTransaction = oldVisibleTransactions.size() > 0 ? oldVisibleTransactions.get(0) : null;
                 RouterTransaction newRootTransaction = newVisibleTransactions.get(0);
 
@@ -452,30 +525,31 @@ public abstract class Router {
                 if (oldRootTransaction == null || oldRootTransaction.controller() != newRootTransaction.controller()) {
                     // Ensure the existing root controller is fully pushed to the view hierarchy
                     if (oldRootTransaction != null) {
-                        ControllerChangeHandler.completeHandlerImmediately(oldRootTransaction.controller().getInstanceId());
+                        getInProgressChangeHandlers().completeImmediately(oldRootTransaction.controller());
                     }
                     performControllerChange(newRootTransaction, oldRootTransaction, newRootRequiresPush, changeHandler);
                 }
 
-                // Remove all visible controllers that were previously on the backstack
-                for (int i = oldVisibleTransactions.size() - 1; i > 0; i--) {
-                    RouterTransaction transaction = oldVisibleTransactions.get(i);
-                    if (!newVisibleTransactions.contains(transaction)) {
-                        ControllerChangeHandler localHandler = changeHandler != null ? changeHandler.copy() : new SimpleSwapChangeHandler();
-                        localHandler.setForceRemoveViewOnPush(true);
-                        ControllerChangeHandler.completeHandlerImmediately(transaction.controller().getInstanceId());
+                // Remove all other visible controllers that were previously on the backstack, from the top down
+                for (RouterTransaction transaction : diff.noLongerVisible) {
+                    if (transaction == oldRootTransaction) {
+                        continue;
+                    }
 
-                        if (transaction.controller().view != null) {
-                            performControllerChange(null, transaction, newRootRequiresPush, localHandler);
-                        }
+                    ControllerChangeHandler localHandler = changeHandler != null ? changeHandler.copy() : new SimpleSwapChangeHandler();
+                    localHandler.setForceRemoveViewOnPush(true);
+                    getInProgressChangeHandlers().completeImmediately(transaction.controller());
+
+                    if (transaction.controller().view != null) {
+                        performControllerChange(null, transaction, newRootRequiresPush, localHandler);
                     }
                 }
 
-                // Add any new controllers to the backstack
-                for (int i = 1; i < newVisibleTransactions.size(); i++) {
-                    RouterTransaction transaction = newVisibleTransactions.get(i);
-                    if (!oldVisibleTransactions.contains(transaction)) {
-                        performControllerChange(transaction, newVisibleTransactions.get(i - 1), true, transaction.pushChangeHandler());
+                // Add any new controllers on top of the ones beneath them, from the root up
+                for (RouterTransaction transaction : diff.newlyVisible) {
+                    RouterTransaction below = diff.visibleBelow(transaction);
+                    if (below != null) {
+                        performControllerChange(transaction, below, true, transaction.pushChangeHandler());
                     }
                 }
             }
@@ -485,7 +559,7 @@ public abstract class Router {
             for (int i = oldVisibleTransactions.size() - 1; i >= 0; i--) {
                 RouterTransaction transaction = oldVisibleTransactions.get(i);
                 ControllerChangeHandler localHandler = changeHandler != null ? changeHandler.copy() : new SimpleSwapChangeHandler();
-                ControllerChangeHandler.completeHandlerImmediately(transaction.controller().getInstanceId());
+                getInProgressChangeHandlers().completeImmediately(transaction.controller());
                 performControllerChange(null, transaction, false, localHandler);
             }
         }
@@ -493,22 +567,65 @@ public abstract class Router {
         // Destroy all old controllers that are no longer on the backstack. We don't do this when we initially
         // set the backstack to prevent the possibility that they'll be destroyed before the controller
         // change handler runs.
-        for (RouterTransaction removedTransaction : transactionsToBeRemoved) {
-
+        if (!diff.removed.isEmpty()) {
             // Still need to ensure the controller isn't queued up to be removed later on.
-            boolean willBeRemoved = false;
+            Set<Controller> pendingRemovals = Collections.newSetFromMap(new IdentityHashMap<Controller, Boolean>());
             for (ChangeTransaction pendingTransaction : pendingControllerChanges) {
-                if (pendingTransaction.from == removedTransaction.controller()) {
-                    willBeRemoved = true;
+                if (pendingTransaction.from != null) {
+                    pendingRemovals.add(pendingTransaction.from);
                 }
             }
 
-            if (!willBeRemoved) {
-                removedTransaction.controller().destroy();
+            for (RouterTransaction removedTransaction : diff.removed) {
+                if (removedTransaction.isHydrated() && !pendingRemovals.contains(removedTransaction.controller())) {
+                    removedTransaction.controller().destroy();
+                }
+                removedTransaction.deleteStoredState();
             }
         }
     }
 
+    /**
+     * Starts a batch of backstack operations that will be applied together once {@link RouterBatch#commit()} is
+     * called. Only the {@link Controller}s that are visible once the batch has been applied will be inflated and
+     * transitioned, which avoids running a change for each intermediate step of a multi-step navigation.
+     */
+    @NonNull
+    public RouterBatch beginTransaction() {
+        return new RouterBatch(this);
+    }
+
+    /**
+     * Sets the maximum number of views that will be kept for reuse by Controllers of the passed class using
+     * {@link Controller.RetainViewMode#RECYCLE}. Pools are shared by a root Router and all of its children, so
+     * this affects the whole hierarchy this Router belongs to. Defaults to 2.
+     *
+     * @param controllerClass The Controller class the limit applies to
+     * @param max             The maximum number of views to keep, or 0 to disable recycling for this class
+     */
+    @UiThread
+    public void setMaxRecycledViews(@NonNull Class<? extends Controller> controllerClass, int max) {
+        ThreadUtils.ensureMainThread();
+        getViewPool().setMaxViews(controllerClass, max);
+    }
+
+    /**
+     * Starts creating the view of the passed transaction's {@link Controller} ahead of time, so that pushing it
+     * later doesn't have to create the view in the same frame its change starts. This is most useful for
+     * Controllers with heavy layouts that are likely to be shown next. See {@link Controller#prepareView(ViewGroup)}
+     * for the contract the Controller's onCreateView has to follow.
+     *
+     * @param transaction The transaction that is expected to be pushed to this Router
+     */
+    @UiThread
+    public void prefetch(@NonNull RouterTransaction transaction) {
+        ThreadUtils.ensureMainThread();
+
+        if (container != null) {
+            transaction.controller().prepareView(container);
+        }
+    }
+
     /**
      * Returns whether or not this Router has a root {@link Controller}
      */
@@ -538,6 +655,28 @@ public abstract class Router {
         changeListeners.remove(changeListener);
     }
 
+    /**
+     * Adds a listener that will receive timings for every change this Router performs. Changes performed by
+     * child Routers are only reported to listeners added to those Routers. Like change listeners, metrics
+     * listeners are removed when the host Activity is destroyed.
+     *
+     * @param metricsListener The listener
+     */
+    public void addMetricsListener(@NonNull ConductorMetrics metricsListener) {
+        if (!metricsListeners.contains(metricsListener)) {
+            metricsListeners.add(metricsListener);
+        }
+    }
+
+    /**
+     * Removes a previously added metrics listener
+     *
+     * @param metricsListener The listener to be removed
+     */
+    public void removeMetricsListener(@NonNull ConductorMetrics metricsListener) {
+        metricsListeners.remove(metricsListener);
+    }
+
     /**
      * Attaches this Router's existing backstack to its container if one exists.
      */
@@ -549,9 +688,9 @@ public abstract class Router {
         while (backstackIterator.hasNext()) {
             RouterTransaction transaction = backstackIterator.next();
 
-            if (transaction.controller().getNeedsAttach()) {
+            if (transaction.needsAttach()) {
                 performControllerChange(transaction, null, true, new SimpleSwapChangeHandler(false));
-            } else {
+            } else if (transaction.isHydrated()) {
                 setRouterOnController(transaction.controller());
             }
         }
@@ -564,44 +703,40 @@ public abstract class Router {
         }
     }
 
+    /**
+     * Called on root routers when the host Activity is started. This and the other Activity lifecycle callbacks
+     * only reach the Controllers in the hierarchy that have a view or override the callback.
+     */
     public final void onActivityStarted(@NonNull Activity activity) {
         isActivityStopped = false;
 
-        for (RouterTransaction transaction : backstack) {
-            transaction.controller().activityStarted(activity);
-
-            for (Router childRouter : transaction.controller().getChildRouters()) {
-                childRouter.onActivityStarted(activity);
+        for (Controller controller : getActivityCallbackRegistry().getControllers()) {
+            if (!controller.isBeingDestroyed) {
+                controller.activityStarted(activity);
             }
         }
     }
 
     public final void onActivityResumed(@NonNull Activity activity) {
-        for (RouterTransaction transaction : backstack) {
-            transaction.controller().activityResumed(activity);
-
-            for (Router childRouter : transaction.controller().getChildRouters()) {
-                childRouter.onActivityResumed(activity);
+        for (Controller controller : getActivityCallbackRegistry().getControllers()) {
+            if (!controller.isBeingDestroyed) {
+                controller.activityResumed(activity);
             }
         }
     }
 
     public final void onActivityPaused(@NonNull Activity activity) {
-        for (RouterTransaction transaction : backstack) {
-            transaction.controller().activityPaused(activity);
-
-            for (Router childRouter : transaction.controller().getChildRouters()) {
-                childRouter.onActivityPaused(activity);
+        for (Controller controller : getActivityCallbackRegistry().getControllers()) {
+            if (!controller.isBeingDestroyed) {
+                controller.activityPaused(activity);
             }
         }
     }
 
     public final void onActivityStopped(@NonNull Activity activity) {
-        for (RouterTransaction transaction : backstack) {
-            transaction.controller().activityStopped(activity);
-
-            for (Router childRouter : transaction.controller().getChildRouters()) {
-                childRouter.onActivityStopped(activity);
+        for (Controller controller : getActivityCallbackRegistry().getControllers()) {
+            if (!controller.isBeingDestroyed) {
+                controller.activityStopped(activity);
             }
         }
 
@@ -611,8 +746,21 @@ public abstract class Router {
     public void onActivityDestroyed(@NonNull Activity activity, boolean isConfigurationChange) {
         prepareForContainerRemoval();
         changeListeners.clear();
+        metricsListeners.clear();
+
+        // Stored state is still needed by an Activity the system destroys to recreate it later. It can only be dropped
+        // once the Activity is finishing, or if no saved state that refers to it was ever handed out.
+        boolean deleteStoredState = activity.isFinishing() || !getHierarchyState().hasSavedState;
 
         for (RouterTransaction transaction : backstack) {
+            if (deleteStoredState) {
+                transaction.deleteStoredState();
+            }
+
+            if (!transaction.isHydrated()) {
+                continue;
+            }
+
             transaction.controller().activityDestroyed(activity);
 
             for (Router childRouter : transaction.controller().getChildRouters()) {
@@ -634,9 +782,14 @@ public abstract class Router {
 
     public void prepareForHostDetach() {
         pendingControllerChanges.clear(); // rely on backstack based restoration in rebindIfNeeded
+        getPendingChangeScheduler().cancel(this);
 
         for (RouterTransaction transaction : backstack) {
-            if (ControllerChangeHandler.completeHandlerImmediately(transaction.controller().getInstanceId())) {
+            if (!transaction.isHydrated()) {
+                continue;
+            }
+
+            if (getInProgressChangeHandlers().completeImmediately(transaction.controller())) {
                 transaction.controller().setNeedsAttach(true);
             }
 
@@ -645,11 +798,17 @@ public abstract class Router {
     }
 
     public void saveInstanceState(@NonNull Bundle outState) {
-        Bundle backstackState = new Bundle();
-        backstack.saveInstanceState(backstackState);
+        // Cached state is ignored if incremental saving was turned off after it was cached
+        Bundle backstackState = Conductor.getIncrementalStateSaving() ? lastSavedBackstackState : null;
+        if (backstackState == null) {
+            backstackState = new Bundle();
+            boolean reusable = backstack.saveInstanceState(backstackState);
+            lastSavedBackstackState = reusable && Conductor.getIncrementalStateSaving() ? backstackState : null;
+        }
 
         outState.putParcelable(KEY_BACKSTACK, backstackState);
         outState.putBoolean(KEY_POPS_LAST_VIEW, popsLastView);
+        getHierarchyState().hasSavedState = true;
     }
 
     public void restoreInstanceState(@NonNull Bundle savedInstanceState) {
@@ -657,45 +816,41 @@ public abstract class Router {
         //noinspection ConstantConditions
         backstack.restoreInstanceState(backstackBundle);
         popsLastView = savedInstanceState.getBoolean(KEY_POPS_LAST_VIEW);
+        getHierarchyState().hasSavedState = true;
 
+        // Restored controllers are only created once they're needed, at which point their router gets set
         Iterator<RouterTransaction> backstackIterator = backstack.reverseIterator();
         while (backstackIterator.hasNext()) {
-            setRouterOnController(backstackIterator.next().controller());
+            RouterTransaction transaction = backstackIterator.next();
+            if (transaction.isHydrated()) {
+                setRouterOnController(transaction.controller());
+            }
         }
     }
 
+    /**
+     * Called on root routers when the options menu is created. This and the other options menu callbacks only reach
+     * the Controllers in the hierarchy that currently contribute to the menu.
+     */
     public final void onCreateOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
-        for (RouterTransaction transaction : backstack) {
-            transaction.controller().createOptionsMenu(menu, inflater);
-
-            for (Router childRouter : transaction.controller().getChildRouters()) {
-                childRouter.onCreateOptionsMenu(menu, inflater);
-            }
+        for (Controller controller : getOptionsMenuRegistry().getControllers()) {
+            controller.createOptionsMenu(menu, inflater);
         }
     }
 
     public final void onPrepareOptionsMenu(@NonNull Menu menu) {
-        for (RouterTransaction transaction : backstack) {
-            transaction.controller().prepareOptionsMenu(menu);
-
-            for (Router childRouter : transaction.controller().getChildRouters()) {
-                childRouter.onPrepareOptionsMenu(menu);
-            }
+        for (Controller controller : getOptionsMenuRegistry().getControllers()) {
+            controller.prepareOptionsMenu(menu);
         }
     }
 
     public final boolean onOptionsItemSelected(@NonNull MenuItem item) {
-        for (RouterTransaction transaction : backstack) {
-            if (transaction.controller().optionsItemSelected(item)) {
+        for (Controller controller : getOptionsMenuRegistry().getControllers()) {
+            if (controller.optionsItemSelected(item)) {
                 return true;
             }
-
-            for (Router childRouter : transaction.controller().getChildRouters()) {
-                if (childRouter.onOptionsItemSelected(item)) {
-                    return true;
-                }
-            }
         }
+
         return false;
     }
 
@@ -727,6 +882,7 @@ public abstract class Router {
             @Override
             public void run() {
                 containerFullyAttached = true;
+                getPendingChangeScheduler().onContainerAttached(Router.this);
             }
         });
     }
@@ -741,17 +897,25 @@ public abstract class Router {
 
     void onContextAvailable() {
         for (RouterTransaction transaction : backstack) {
-            transaction.controller().onContextAvailable();
+            if (transaction.isHydrated()) {
+                transaction.controller().onContextAvailable();
+            }
         }
     }
 
+    /**
+     * Returns the controllers in this router's backstack that have been created, ordered from root to top.
+     */
     @NonNull
     final List<Controller> getControllers() {
         List<Controller> controllers = new ArrayList<>(backstack.size());
 
         Iterator<RouterTransaction> backstackIterator = backstack.reverseIterator();
         while (backstackIterator.hasNext()) {
-            controllers.add(backstackIterator.next().controller());
+            RouterTransaction transaction = backstackIterator.next();
+            if (transaction.isHydrated()) {
+                controllers.add(transaction.controller());
+            }
         }
 
         return controllers;
@@ -760,7 +924,7 @@ public abstract class Router {
     @Nullable
     public final Boolean handleRequestedPermission(@NonNull String permission) {
         for (RouterTransaction transaction : backstack) {
-            if (transaction.controller().didRequestPermission(permission)) {
+            if (transaction.isHydrated() && transaction.controller().didRequestPermission(permission)) {
                 return transaction.controller().shouldShowRequestPermissionRationale(permission);
             }
         }
@@ -820,7 +984,8 @@ public abstract class Router {
             throw new IllegalStateException("Trying to push a controller that has already been destroyed. (" + to.getClass().getSimpleName() + ")");
         }
 
-        final ChangeTransaction transaction = new ChangeTransaction(to, from, isPush, container, changeHandler, new ArrayList<>(changeListeners));
+        final ChangeMetrics metrics = metricsListeners.isEmpty() ? null : new ChangeMetrics(to, from, isPush, new ArrayList<>(metricsListeners));
+        final ChangeTransaction transaction = new ChangeTransaction(to, from, isPush, container, changeHandler, new ArrayList<>(changeListeners), this, metrics);
 
         if (pendingControllerChanges.size() > 0) {
             // If we already have changes queued up (awaiting full container attach), queue this one up as well so they don't happen
@@ -829,32 +994,33 @@ public abstract class Router {
                 to.setNeedsAttach(true);
             }
             pendingControllerChanges.add(transaction);
+            getPendingChangeScheduler().schedule(this);
         } else if (from != null && (changeHandler == null || changeHandler.removesFromViewOnPush()) && !containerFullyAttached) {
             // If the change handler will remove the from view, we have to make sure the container is fully attached first so we avoid NPEs
-            // within ViewGroup (details on issue #287). Post this to the container to ensure the attach is complete before we try to remove
-            // anything.
+            // within ViewGroup (details on issue #287). Defer this to the next frame to ensure the attach is complete before we try to
+            // remove anything.
             if (to != null) {
                 to.setNeedsAttach(true);
             }
             pendingControllerChanges.add(transaction);
-            container.post(new Runnable() {
-                @Override
-                public void run() {
-                    performPendingControllerChanges();
-                }
-            });
+            getPendingChangeScheduler().schedule(this);
         } else {
             ControllerChangeHandler.executeChange(transaction);
         }
     }
 
-    void performPendingControllerChanges() {
-        // We're intentionally using dynamic size checking (list.size()) here so we can account for changes
-        // that occur during this loop (ex: if a controller is popped from within onAttach)
-        for (int i = 0; i < pendingControllerChanges.size(); i++) {
-            ControllerChangeHandler.executeChange(pendingControllerChanges.get(i));
+    void performNextPendingControllerChange() {
+        if (!pendingControllerChanges.isEmpty()) {
+            // Stays queued while it runs so that any changes it causes are queued up behind it rather than run out of order
+            ChangeTransaction transaction = pendingControllerChanges.get(0);
+            ConductorTracer tracer = Tracing.begin("Router.performPendingControllerChanges", this);
+            try {
+                ControllerChangeHandler.executeChange(transaction);
+                pendingControllerChanges.remove(transaction);
+            } finally {
+                Tracing.end(tracer);
+            }
         }
-        pendingControllerChanges.clear();
     }
 
     protected void pushToBackstack(@NonNull RouterTransaction entry) {
@@ -865,7 +1031,7 @@ public abstract class Router {
     }
 
     private void trackDestroyingController(@NonNull RouterTransaction transaction) {
-        if (!transaction.controller().isDestroyed()) {
+        if (transaction.isHydrated() && !transaction.controller().isDestroyed()) {
             destroyingControllers.add(transaction.controller());
 
             transaction.controller().addLifecycleListener(new Controller.LifecycleListener() {
@@ -887,7 +1053,7 @@ public abstract class Router {
         List<View> views = new ArrayList<>();
 
         for (RouterTransaction transaction : getVisibleTransactions(backstack.iterator(), false)) {
-            if (transaction.controller().getView() != null) {
+            if (transaction.isHydrated() && transaction.controller().getView() != null) {
                 views.add(transaction.controller().getView());
             }
         }
@@ -923,17 +1089,6 @@ public abstract class Router {
         }
     }
 
-    private void ensureNoDuplicateControllers(List<RouterTransaction> backstack) {
-        for (int i = 0; i < backstack.size(); i++) {
-            Controller controller = backstack.get(i).controller();
-            for (int j = i + 1; j < backstack.size(); j++) {
-                if (backstack.get(j).controller() == controller) {
-                    throw new IllegalStateException("Trying to push the same controller to the backstack more than once.");
-                }
-            }
-        }
-    }
-
     private void addRouterViewsToList(@NonNull Router router, @NonNull List<View> list) {
         for (Controller controller : router.getControllers()) {
             if (controller.getView() != null) {
@@ -968,18 +1123,58 @@ public abstract class Router {
         return transactions;
     }
 
-    private boolean backstacksAreEqual(List<RouterTransaction> lhs, List<RouterTransaction> rhs) {
-        if (lhs.size() != rhs.size()) {
-            return false;
+    /**
+     * Drops this router's last saved state after something in it has changed, along with that of any Controller
+     * hosting it.
+     */
+    void invalidateSavedState() {
+        lastSavedBackstackState = null;
+    }
+
+    @Nullable
+    private RouterTransaction getIndexedTransaction(@NonNull String instanceId) {
+        if (!hierarchyIndexValid) {
+            hierarchyIndex.clear();
+            for (RouterTransaction transaction : backstack) {
+                addToHierarchyIndex(transaction);
+            }
+            hierarchyIndexValid = true;
         }
+        return hierarchyIndex.get(instanceId);
+    }
 
-        for (int i = 0; i < rhs.size(); i++) {
-            if (rhs.get(i).controller() != lhs.get(i).controller()) {
-                return false;
+    /**
+     * Adds the passed transaction and everything in its controller's child routers to this root router's index.
+     */
+    private void addToHierarchyIndex(@NonNull RouterTransaction transaction) {
+        hierarchyIndex.put(transaction.instanceId(), transaction);
+
+        // Controllers that haven't been restored yet don't have child routers to walk
+        if (transaction.isHydrated()) {
+            for (Router childRouter : transaction.controller().getChildRouters()) {
+                // Anything the child indexed while it was its own root is covered by this index now
+                childRouter.hierarchyIndex.clear();
+                childRouter.hierarchyIndexValid = false;
+
+                for (RouterTransaction childTransaction : childRouter.backstack) {
+                    addToHierarchyIndex(childTransaction);
+                }
             }
         }
+    }
+
+    private void removeFromHierarchyIndex(@NonNull RouterTransaction transaction) {
+        if (hierarchyIndex.get(transaction.instanceId()) == transaction) {
+            hierarchyIndex.remove(transaction.instanceId());
+        }
 
-        return true;
+        if (transaction.isHydrated()) {
+            for (Router childRouter : transaction.controller().getChildRouters()) {
+                for (RouterTransaction childTransaction : childRouter.backstack) {
+                    removeFromHierarchyIndex(childTransaction);
+                }
+            }
+        }
     }
 
     void setRouterOnController(@NonNull Controller controller) {
@@ -1000,5 +1195,31 @@ public abstract class Router {
     @NonNull abstract List<Router> getSiblingRouters();
     @NonNull abstract public Router getRootRouter();
     @NonNull abstract TransactionIndexer getTransactionIndexer();
+    @NonNull abstract RouterHierarchyState getHierarchyState();
+
+    @NonNull
+    final ViewPool getViewPool() {
+        return getHierarchyState().viewPool;
+    }
+
+    @NonNull
+    final InProgressChangeHandlers getInProgressChangeHandlers() {
+        return getHierarchyState().inProgressChangeHandlers;
+    }
+
+    @NonNull
+    final ActivityCallbackRegistry getActivityCallbackRegistry() {
+        return getHierarchyState().activityCallbackRegistry;
+    }
+
+    @NonNull
+    final OptionsMenuRegistry getOptionsMenuRegistry() {
+        return getHierarchyState().optionsMenuRegistry;
+    }
+
+    @NonNull
+    final PendingChangeScheduler getPendingChangeScheduler() {
+        return getHierarchyState().pendingChangeScheduler;
+    }
 
 }
@@ -0,0 +1,231 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.UiThread;
+
+import com.bluelinelabs.conductor.internal.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records a series of backstack operations to be applied to a {@link Router} all at once. Only the
+ * {@link Controller}s that are visible once every operation has been applied are inflated and transitioned
+ * to, rather than running a change for each step along the way. Obtain one with {@link Router#beginTransaction()}.
+ */
+public final class RouterBatch {
+
+    private final Router router;
+    private final List<Operation> operations = new ArrayList<>();
+    private boolean committed;
+
+    // Only used while the operations are being applied in commit()
+    private List<RouterTransaction> backstack;
+    @Nullable private ControllerChangeHandler changeHandler;
+
+    RouterBatch(@NonNull Router router) {
+        this.router = router;
+    }
+
+    /**
+     * Pushes a new {@link Controller} to the backstack.
+     *
+     * @param transaction The transaction detailing what should be pushed, including the {@link Controller},
+     *                    and its push and pop {@link ControllerChangeHandler}, and its tag.
+     */
+    @NonNull
+    public RouterBatch pushController(@NonNull final RouterTransaction transaction) {
+        return add(new Operation() {
+            @Override
+            public void apply() {
+                push(transaction);
+            }
+        });
+    }
+
+    /**
+     * Pops the top {@link Controller} from the backstack, if there is one.
+     */
+    @NonNull
+    public RouterBatch popCurrentController() {
+        return add(new Operation() {
+            @Override
+            public void apply() {
+                if (!backstack.isEmpty()) {
+                    changeHandler = backstack.remove(backstack.size() - 1).popChangeHandler();
+                }
+            }
+        });
+    }
+
+    /**
+     * Pops the passed {@link Controller} from the backstack, if it is on it.
+     *
+     * @param controller The controller that should be popped
+     */
+    @NonNull
+    public RouterBatch popController(@NonNull final Controller controller) {
+        return add(new Operation() {
+            @Override
+            public void apply() {
+                for (int i = backstack.size() - 1; i >= 0; i--) {
+                    RouterTransaction transaction = backstack.get(i);
+                    if (transaction.isHydrated() && transaction.controller() == controller) {
+                        backstack.remove(i);
+                        if (i == backstack.size()) {
+                            changeHandler = transaction.popChangeHandler();
+                        }
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Pops all {@link Controller}s until only the root is left.
+     *
+     * @param changeHandler An optional {@link ControllerChangeHandler} to use in place of the top controller's pop handler
+     */
+    @NonNull
+    public RouterBatch popToRoot(@Nullable final ControllerChangeHandler changeHandler) {
+        return add(new Operation() {
+            @Override
+            public void apply() {
+                if (backstack.size() > 1) {
+                    popTo(0, changeHandler);
+                }
+            }
+        });
+    }
+
+    /**
+     * Pops all {@link Controller}s until the top-most {@link Controller} with the passed tag is at the top.
+     *
+     * @param tag           The tag being popped to
+     * @param changeHandler An optional {@link ControllerChangeHandler} to use in place of the top controller's pop handler
+     */
+    @NonNull
+    public RouterBatch popToTag(@NonNull final String tag, @Nullable final ControllerChangeHandler changeHandler) {
+        return add(new Operation() {
+            @Override
+            public void apply() {
+                for (int i = backstack.size() - 1; i >= 0; i--) {
+                    if (tag.equals(backstack.get(i).tag())) {
+                        popTo(i, changeHandler);
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces the top {@link Controller} with a new {@link Controller}.
+     *
+     * @param transaction The transaction detailing what should be pushed, including the {@link Controller},
+     *                    and its push and pop {@link ControllerChangeHandler}, and its tag.
+     */
+    @NonNull
+    public RouterBatch replaceTopController(@NonNull final RouterTransaction transaction) {
+        return add(new Operation() {
+            @Override
+            public void apply() {
+                if (!backstack.isEmpty()) {
+                    backstack.remove(backstack.size() - 1);
+                }
+                push(transaction);
+            }
+        });
+    }
+
+    /**
+     * Replaces the backstack with the passed one.
+     *
+     * @param newBackstack  The new backstack, ordered from root to top
+     * @param changeHandler An optional change handler to be used to handle the root view of transition
+     */
+    @NonNull
+    public RouterBatch setBackstack(@NonNull List<RouterTransaction> newBackstack, @Nullable final ControllerChangeHandler changeHandler) {
+        final List<RouterTransaction> transactions = new ArrayList<>(newBackstack);
+        return add(new Operation() {
+            @Override
+            public void apply() {
+                backstack.clear();
+                backstack.addAll(transactions);
+                RouterBatch.this.changeHandler = changeHandler;
+            }
+        });
+    }
+
+    /**
+     * Replaces the backstack with only the passed transaction.
+     *
+     * @param transaction The transaction detailing what should be pushed, including the {@link Controller},
+     *                    and its push and pop {@link ControllerChangeHandler}, and its tag.
+     */
+    @NonNull
+    public RouterBatch setRoot(@NonNull final RouterTransaction transaction) {
+        return add(new Operation() {
+            @Override
+            public void apply() {
+                backstack.clear();
+                push(transaction);
+            }
+        });
+    }
+
+    /**
+     * Applies all recorded operations, in order, to the {@link Router}'s current backstack and then transitions to
+     * the result in a single change. The change handler of the last operation that changed the top of the backstack
+     * is used for the transition.
+     */
+    @UiThread
+    public void commit() {
+        ThreadUtils.ensureMainThread();
+        ensureNotCommitted();
+        committed = true;
+
+        backstack = router.getBackstack();
+        for (Operation operation : operations) {
+            operation.apply();
+        }
+
+        router.setBackstack(backstack, changeHandler);
+        backstack = null;
+        changeHandler = null;
+    }
+
+    @NonNull
+    private RouterBatch add(@NonNull Operation operation) {
+        ensureNotCommitted();
+        operations.add(operation);
+        return this;
+    }
+
+    private void push(@NonNull RouterTransaction transaction) {
+        backstack.add(transaction);
+        changeHandler = transaction.pushChangeHandler();
+    }
+
+    private void popTo(int index, @Nullable ControllerChangeHandler changeHandler) {
+        RouterTransaction topTransaction = backstack.get(backstack.size() - 1);
+        this.changeHandler = changeHandler != null ? changeHandler : topTransaction.popChangeHandler();
+
+        while (backstack.size() > index + 1) {
+            backstack.remove(backstack.size() - 1);
+        }
+    }
+
+    private void ensureNotCommitted() {
+        if (committed) {
+            throw new IllegalStateException("This RouterBatch has already been committed.");
+        }
+    }
+
+    private interface Operation {
+        void apply();
+    }
+
+}
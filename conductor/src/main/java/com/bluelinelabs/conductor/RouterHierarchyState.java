@@ -0,0 +1,33 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Everything a root {@link Router} shares with all of its child Routers. A child Router whose host {@link Controller}
+ * hasn't been added to a Router yet isn't part of a hierarchy, so it keeps its own state until it is and then hands
+ * that over to the root's.
+ */
+final class RouterHierarchyState {
+
+    final ViewPool viewPool = new ViewPool();
+    final InProgressChangeHandlers inProgressChangeHandlers = new InProgressChangeHandlers();
+    final ActivityCallbackRegistry activityCallbackRegistry = new ActivityCallbackRegistry();
+    final OptionsMenuRegistry optionsMenuRegistry = new OptionsMenuRegistry();
+    final PendingChangeScheduler pendingChangeScheduler = new PendingChangeScheduler();
+
+    // Whether or not any of the hierarchy's state has been saved or restored, in which case that saved state may
+    // still refer to entries in the RouterStateStore
+    boolean hasSavedState;
+
+    /**
+     * Moves everything collected in this state over to the passed one. Registered Controllers aren't moved here, as
+     * they move their registrations themselves once they see the new root.
+     */
+    void handOverTo(@NonNull RouterHierarchyState rootState) {
+        viewPool.moveTo(rootState.viewPool);
+        inProgressChangeHandlers.moveTo(rootState.inProgressChangeHandlers);
+        pendingChangeScheduler.moveTo(rootState.pendingChangeScheduler);
+        rootState.hasSavedState |= hasSavedState;
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.bluelinelabs.conductor;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Storage for backstack entries that are too deep in the backstack or too large to be kept in a
+ * {@link Router}'s saved state Bundle. Keeping these entries out of the Bundle keeps deep backstacks from
+ * exceeding the Binder transaction limit. Only a small handle is saved for each of them, and the
+ * stored state is read back the first time its {@link Controller} is needed after being restored.
+ * <p>
+ * A {@link FileRouterStateStore} is installed by default when the first Router is attached. Install a different
+ * one, or none at all, with {@link Conductor#setRouterStateStore(RouterStateStore)} before any Routers are attached.
+ */
+public interface RouterStateStore {
+
+    /**
+     * Returns the number of entries, counted from the top of each backstack, that are always kept in the
+     * saved state Bundle. Deeper entries are written to this store.
+     */
+    int getMaxInlineDepth();
+
+    /**
+     * Returns the approximate number of bytes of each backstack's entries, counted from the top, that may be kept in
+     * the saved state Bundle. Entries past this budget are written to this store. Measuring entries means parceling
+     * each of them on every save, so return {@link Integer#MAX_VALUE} to only limit entries by depth.
+     */
+    int getMaxInlineBytes();
+
+    /**
+     * Writes the saved state of a Controller.
+     *
+     * @param key   A key that uniquely identifies the Controller. Writing with the same key again should replace the
+     *              previously written state.
+     * @param state The saved state of the Controller
+     * @return Whether or not the state was written. State that could not be written is kept in the Bundle instead.
+     */
+    boolean write(@NonNull String key, @NonNull Bundle state);
+
+    /**
+     * Reads state previously written with {@link #write(String, Bundle)}, or returns {@code null} if it
+     * is no longer available.
+     *
+     * @param key The key the state was written with
+     */
+    @Nullable
+    Bundle read(@NonNull String key);
+
+    /**
+     * Deletes state previously written with {@link #write(String, Bundle)}, if it still exists.
+     *
+     * @param key The key the state was written with
+     */
+    void delete(@NonNull String key);
+
+}
@@ -18,8 +18,8 @@ private const val KEY_ATTACHED_TO_ROUTER = "RouterTransaction.attachedToRouter"
  */
 class RouterTransaction
 private constructor(
-  @get:JvmName("controller")
-  val controller: Controller,
+  controller: Controller?,
+  private var controllerBundle: Bundle? = null,
   private var tag: String? = null,
   private var pushControllerChangeHandler: ControllerChangeHandler? = null,
   private var popControllerChangeHandler: ControllerChangeHandler? = null,
@@ -28,10 +28,57 @@ private constructor(
   var transactionIndex: Int = INVALID_INDEX
 ) {
 
+  private var hydratedController: Controller? = controller
+
+  // Handlers the Controller overrode before it was saved, read without having to restore the Controller itself.
+  // They're only read once they're asked for, since most restored transactions are never changed to or from.
+  private var restoredOverriddenPushHandler: ControllerChangeHandler? = null
+  private var restoredOverriddenPopHandler: ControllerChangeHandler? = null
+  private var restoredOverriddenPushHandlerRead = false
+  private var restoredOverriddenPopHandlerRead = false
+
+  @RestrictTo(LIBRARY)
+  var onHydratedListener: OnHydratedListener? = null
+
+  // Whether or not the Controller's state was written to a RouterStateStore that may still hold it
+  private var hasStoredState = false
+
+  // The Controller state last written to the store and the placeholder that replaced it, so that unchanged state
+  // doesn't have to be written again on every save
+  private var writtenState: Bundle? = null
+  private var writtenPlaceholder: Bundle? = null
+  private var writtenStore: RouterStateStore? = null
+
+  /**
+   * The [Controller] for this transaction. Transactions restored from a saved state keep the Controller in
+   * its saved form until it is first needed, at which point it is created and restored.
+   */
+  @get:JvmName("controller")
+  val controller: Controller
+    get() {
+      hydratedController?.let { return it }
+
+      val controller = Controller.newInstance(controllerBundle!!)
+      hydratedController = controller
+      controllerBundle = null
+      restoredOverriddenPushHandler = null
+      restoredOverriddenPopHandler = null
+      onHydratedListener?.onHydrated(this)
+      return controller
+    }
+
+  /**
+   * Whether or not this transaction's [Controller] has been created. Transactions that were not restored
+   * from a saved state always are.
+   */
+  @get:RestrictTo(LIBRARY)
+  val isHydrated: Boolean
+    get() = hydratedController != null
 
   @RestrictTo(LIBRARY)
   internal constructor(bundle: Bundle) : this(
-    controller = Controller.newInstance(bundle.getBundle(KEY_VIEW_CONTROLLER_BUNDLE)!!),
+    controller = null,
+    controllerBundle = bundle.getBundle(KEY_VIEW_CONTROLLER_BUNDLE)!!,
     pushControllerChangeHandler = ControllerChangeHandler.fromBundle(
       bundle.getBundle(
         KEY_PUSH_TRANSITION
@@ -45,7 +92,37 @@ private constructor(
     tag = bundle.getString(KEY_TAG),
     transactionIndex = bundle.getInt(KEY_INDEX),
     attachedToRouter = bundle.getBoolean(KEY_ATTACHED_TO_ROUTER)
-  )
+  ) {
+    hasStoredState = Controller.isStoredState(controllerBundle!!)
+  }
+
+  /**
+   * The instance id of this transaction's [Controller], which can be read without creating it.
+   */
+  @RestrictTo(LIBRARY)
+  fun instanceId(): String {
+    return hydratedController?.instanceId ?: Controller.instanceIdFromState(controllerBundle!!)
+  }
+
+  /**
+   * Whether or not this transaction's [Controller] needs to be attached, which can be read without creating it.
+   */
+  @RestrictTo(LIBRARY)
+  fun needsAttach(): Boolean {
+    return hydratedController?.getNeedsAttach() ?: Controller.needsAttachFromState(controllerBundle!!)
+  }
+
+  @RestrictTo(LIBRARY)
+  fun setNeedsAttach(needsAttach: Boolean) {
+    val controller = hydratedController
+    if (controller != null) {
+      controller.setNeedsAttach(needsAttach)
+    } else if (Controller.needsAttachFromState(controllerBundle!!) != needsAttach) {
+      Controller.setNeedsAttachInState(controllerBundle!!, needsAttach)
+      writtenState = null
+      onHydratedListener?.onUnhydratedStateChanged(this)
+    }
+  }
 
   fun onAttachedToRouter() {
     attachedToRouter = true
@@ -63,7 +140,17 @@ private constructor(
   }
 
   fun pushChangeHandler(): ControllerChangeHandler? {
-    return controller.overriddenPushHandler ?: pushControllerChangeHandler
+    val controller = hydratedController
+    val overriddenHandler = if (controller != null) controller.overriddenPushHandler else readRestoredOverriddenPushHandler()
+    return overriddenHandler ?: pushControllerChangeHandler
+  }
+
+  private fun readRestoredOverriddenPushHandler(): ControllerChangeHandler? {
+    if (!restoredOverriddenPushHandlerRead) {
+      restoredOverriddenPushHandler = Controller.overriddenPushHandlerFromState(controllerBundle!!)
+      restoredOverriddenPushHandlerRead = true
+    }
+    return restoredOverriddenPushHandler
   }
 
   fun pushChangeHandler(handler: ControllerChangeHandler?): RouterTransaction {
@@ -76,7 +163,17 @@ private constructor(
   }
 
   fun popChangeHandler(): ControllerChangeHandler? {
-    return controller.overriddenPopHandler ?: popControllerChangeHandler
+    val controller = hydratedController
+    val overriddenHandler = if (controller != null) controller.overriddenPopHandler else readRestoredOverriddenPopHandler()
+    return overriddenHandler ?: popControllerChangeHandler
+  }
+
+  private fun readRestoredOverriddenPopHandler(): ControllerChangeHandler? {
+    if (!restoredOverriddenPopHandlerRead) {
+      restoredOverriddenPopHandler = Controller.overriddenPopHandlerFromState(controllerBundle!!)
+      restoredOverriddenPopHandlerRead = true
+    }
+    return restoredOverriddenPopHandler
   }
 
   fun popChangeHandler(handler: ControllerChangeHandler?): RouterTransaction {
@@ -94,11 +191,47 @@ private constructor(
     }
   }
 
+  /**
+   * Moves the Controller's state out of a Bundle returned by [saveInstanceState] and into the passed store,
+   * leaving a small placeholder in its place.
+   */
+  @RestrictTo(LIBRARY)
+  fun writeStoredState(savedInstanceState: Bundle, store: RouterStateStore) {
+    val controllerState = savedInstanceState.getBundle(KEY_VIEW_CONTROLLER_BUNDLE) ?: return
+    val placeholder = writtenPlaceholder.takeIf { hasStoredState && controllerState === writtenState && store === writtenStore }
+      ?: Controller.writeStoredState(controllerState, store) ?: return
+    savedInstanceState.putBundle(KEY_VIEW_CONTROLLER_BUNDLE, placeholder)
+    hasStoredState = true
+    writtenState = controllerState
+    writtenPlaceholder = placeholder
+    writtenStore = store
+  }
+
+  /**
+   * Whether or not the state returned by the last call to [saveInstanceState] will be reused by the next one.
+   */
+  @RestrictTo(LIBRARY)
+  fun hasReusableSavedState(): Boolean = hydratedController?.hasReusableSavedState() ?: true
+
+  /**
+   * Deletes any of the Controller's state that was written to a [RouterStateStore]. Should only be called
+   * once this transaction has been removed for good.
+   */
+  @RestrictTo(LIBRARY)
+  fun deleteStoredState() {
+    if (hasStoredState) {
+      Conductor.routerStateStore?.delete(instanceId())
+      hasStoredState = false
+      writtenState = null
+      writtenPlaceholder = null
+    }
+  }
+
   /**
    * Used to serialize this transaction into a Bundle
    */
   fun saveInstanceState(): Bundle = Bundle().apply {
-    putBundle(KEY_VIEW_CONTROLLER_BUNDLE, controller.saveInstanceState())
+    putBundle(KEY_VIEW_CONTROLLER_BUNDLE, hydratedController?.saveInstanceState() ?: controllerBundle)
     pushControllerChangeHandler?.let { putBundle(KEY_PUSH_TRANSITION, it.toBundle()) }
     popControllerChangeHandler?.let { putBundle(KEY_POP_TRANSITION, it.toBundle()) }
     putString(KEY_TAG, tag)
@@ -106,6 +239,16 @@ private constructor(
     putBoolean(KEY_ATTACHED_TO_ROUTER, attachedToRouter)
   }
 
+  /**
+   * Notified when a restored transaction creates its [Controller], or when the saved state it's holding
+   * for it changes before then.
+   */
+  @RestrictTo(LIBRARY)
+  interface OnHydratedListener {
+    fun onHydrated(transaction: RouterTransaction)
+    fun onUnhydratedStateChanged(transaction: RouterTransaction)
+  }
+
   companion object {
 
     @JvmStatic
@@ -0,0 +1,33 @@
+package com.bluelinelabs.conductor;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Begins and ends {@link ConductorTracer} sections. Section names are only built while a tracer is installed.
+ */
+final class Tracing {
+
+    private Tracing() { }
+
+    /**
+     * Begins a section named after the passed step and owner, returning the tracer that has to be passed to
+     * {@link #end(ConductorTracer)} once the step is done, or null if no tracer is installed.
+     */
+    @Nullable
+    static ConductorTracer begin(@NonNull String step, @NonNull Object owner) {
+        ConductorTracer tracer = Conductor.getTracer();
+        if (tracer != null) {
+            String ownerName = owner.getClass().getSimpleName();
+            tracer.beginSection(step + " " + (ownerName.isEmpty() ? owner.getClass().getName() : ownerName));
+        }
+        return tracer;
+    }
+
+    static void end(@Nullable ConductorTracer tracer) {
+        if (tracer != null) {
+            tracer.endSection();
+        }
+    }
+
+}
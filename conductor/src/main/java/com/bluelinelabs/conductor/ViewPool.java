@@ -0,0 +1,114 @@
+package com.bluelinelabs.conductor;
+
+import android.content.Context;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Views released by Controllers that use {@link Controller.RetainViewMode#RECYCLE}, kept per Controller class so
+ * that another instance of the same class can reuse one instead of creating its view again. A single pool is shared
+ * by a root {@link Router} and all of its child Routers.
+ */
+final class ViewPool {
+
+    static final int DEFAULT_MAX_VIEWS_PER_CLASS = 2;
+
+    private final Map<Class<? extends Controller>, ArrayDeque<View>> views = new HashMap<>();
+    private final Map<Class<? extends Controller>, Integer> maxViews = new HashMap<>();
+
+    void setMaxViews(@NonNull Class<? extends Controller> controllerClass, int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException("The maximum number of recycled views can't be negative.");
+        }
+
+        maxViews.put(controllerClass, max);
+
+        ArrayDeque<View> pooled = views.get(controllerClass);
+        if (pooled != null) {
+            while (pooled.size() > max) {
+                pooled.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Adds a view to the pool. Returns false if the view can't be pooled, either because it's still attached to a
+     * parent or because the pool for its Controller class is full.
+     */
+    boolean put(@NonNull Class<? extends Controller> controllerClass, @NonNull View view) {
+        if (view.getParent() != null) {
+            return false;
+        }
+
+        Integer max = maxViews.get(controllerClass);
+        if ((max != null ? max : DEFAULT_MAX_VIEWS_PER_CLASS) == 0) {
+            return false;
+        }
+
+        ArrayDeque<View> pooled = views.get(controllerClass);
+        if (pooled == null) {
+            pooled = new ArrayDeque<>();
+            views.put(controllerClass, pooled);
+        } else if (pooled.size() >= (max != null ? max : DEFAULT_MAX_VIEWS_PER_CLASS)) {
+            return false;
+        }
+
+        pooled.addFirst(view);
+        return true;
+    }
+
+    /**
+     * Removes and returns a pooled view for the passed Controller class, or null if there isn't one that was
+     * created with the passed context.
+     */
+    @Nullable
+    View take(@NonNull Class<? extends Controller> controllerClass, @NonNull Context context) {
+        ArrayDeque<View> pooled = views.get(controllerClass);
+        if (pooled == null) {
+            return null;
+        }
+
+        View view = pooled.pollFirst();
+        if (view != null && view.getContext() != context) {
+            // Views from another context can never be reused, so neither can any that were pooled with this one
+            pooled.clear();
+            return null;
+        }
+        return view;
+    }
+
+    void clear() {
+        views.clear();
+    }
+
+    /**
+     * Moves the limits and views of this pool over to the passed one. Limits that were already set there are kept, as
+     * are any views it doesn't have room for.
+     */
+    void moveTo(@NonNull ViewPool pool) {
+        for (Map.Entry<Class<? extends Controller>, Integer> entry : maxViews.entrySet()) {
+            if (!pool.maxViews.containsKey(entry.getKey())) {
+                pool.setMaxViews(entry.getKey(), entry.getValue());
+            }
+        }
+
+        for (Map.Entry<Class<? extends Controller>, ArrayDeque<View>> entry : views.entrySet()) {
+            // Oldest first, so the most recently pooled views end up in front again
+            Iterator<View> iterator = entry.getValue().descendingIterator();
+            while (iterator.hasNext()) {
+                pool.put(entry.getKey(), iterator.next());
+            }
+        }
+
+        maxViews.clear();
+        views.clear();
+    }
+
+}
@@ -0,0 +1,156 @@
+package com.bluelinelabs.conductor;
+
+import android.os.Bundle;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates a {@link Controller}'s view ahead of time so it can be handed over when the Controller is inflated,
+ * rather than being created in the same frame as the change that shows it. Views are created on a shared
+ * background thread for Controllers that allow it, or in the main thread's idle time for all others. The prefetch
+ * is dropped if the parent is detached from its window, since the view holds on to the parent's Context.
+ */
+final class ViewPrefetch implements View.OnAttachStateChangeListener {
+
+    private static ExecutorService backgroundExecutor;
+
+    private final Controller controller;
+    private final ViewGroup parent;
+    private final FutureTask<View> task;
+    private MessageQueue.IdleHandler idleHandler;
+
+    private ViewPrefetch(@NonNull final Controller controller, @NonNull final ViewGroup parent, @Nullable final Bundle savedViewState) {
+        this.controller = controller;
+        this.parent = parent;
+
+        // Cloned so that a background inflation never shares factory state with inflations on the main thread
+        final LayoutInflater inflater = LayoutInflater.from(parent.getContext()).cloneInContext(parent.getContext());
+        task = new FutureTask<>(new Callable<View>() {
+            @Override
+            public View call() {
+                return controller.buildView(inflater, parent, savedViewState);
+            }
+        });
+    }
+
+    @NonNull
+    static ViewPrefetch start(@NonNull Controller controller, @NonNull ViewGroup parent, @Nullable Bundle savedViewState, boolean offMainThread) {
+        final ViewPrefetch prefetch = new ViewPrefetch(controller, parent, savedViewState);
+        parent.addOnAttachStateChangeListener(prefetch);
+
+        if (offMainThread) {
+            getBackgroundExecutor().execute(prefetch.task);
+        } else {
+            prefetch.idleHandler = new MessageQueue.IdleHandler() {
+                @Override
+                public boolean queueIdle() {
+                    prefetch.idleHandler = null;
+                    prefetch.task.run();
+                    return false;
+                }
+            };
+            Looper.myQueue().addIdleHandler(prefetch.idleHandler);
+        }
+
+        return prefetch;
+    }
+
+    boolean isFor(@NonNull ViewGroup parent) {
+        return this.parent == parent;
+    }
+
+    /**
+     * Returns the prepared view if it can be used in the passed parent. If the view hasn't started being created
+     * yet, the work is cancelled and {@code null} is returned so the caller can create it directly. If it is
+     * being created on the background thread, this waits for it to finish so onCreateView never runs twice at once.
+     */
+    @Nullable
+    View take(@NonNull ViewGroup parent) {
+        removeIdleHandler();
+        this.parent.removeOnAttachStateChangeListener(this);
+
+        if (task.cancel(false)) {
+            return null;
+        }
+
+        View view;
+        try {
+            view = getUninterruptibly();
+        } catch (CancellationException e) {
+            return null;
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Controller's onCreateView failed while its view was being prepared. Controllers that return true from canPrepareViewOffMainThread must be able to create their views on any thread.", e.getCause());
+        }
+
+        return isFor(parent) ? view : null;
+    }
+
+    void cancel() {
+        removeIdleHandler();
+        parent.removeOnAttachStateChangeListener(this);
+        task.cancel(false);
+    }
+
+    @Override
+    public void onViewAttachedToWindow(View v) { }
+
+    @Override
+    public void onViewDetachedFromWindow(View v) {
+        controller.dropViewPrefetch(this);
+    }
+
+    private void removeIdleHandler() {
+        if (idleHandler != null) {
+            Looper.myQueue().removeIdleHandler(idleHandler);
+            idleHandler = null;
+        }
+    }
+
+    private View getUninterruptibly() throws ExecutionException {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @NonNull
+    private static synchronized ExecutorService getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Conductor view prefetch");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                }
+            });
+        }
+        return backgroundExecutor;
+    }
+
+}
@@ -7,12 +7,17 @@ import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.view.View;
+import android.view.View.MeasureSpec;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
 
+import com.bluelinelabs.conductor.Conductor;
 import com.bluelinelabs.conductor.Controller;
 import com.bluelinelabs.conductor.ControllerChangeHandler;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * A base {@link ControllerChangeHandler} that facilitates using {@link android.animation.Animator}s to replace Controller Views
  */
@@ -31,6 +36,8 @@ public abstract class AnimatorChangeHandler extends ControllerChangeHandler {
     private boolean completed;
     Animator animator;
     private OnAnimationReadyOrAbortedListener onAnimationReadyOrAbortedListener;
+    // Views that were moved onto hardware layers for this change and need to be taken off of them once it's complete
+    private final List<View> hardwareLayerViews = new ArrayList<>(2);
 
     @SuppressWarnings("WeakerAccess")
     public AnimatorChangeHandler() {
@@ -66,6 +73,18 @@ public abstract class AnimatorChangeHandler extends ControllerChangeHandler {
         removesFromViewOnPush = bundle.getBoolean(KEY_REMOVES_FROM_ON_PUSH);
     }
 
+    /**
+     * Copies the duration and whether or not the from view is removed on push. Subclasses that save more state in
+     * {@link #saveToBundle(Bundle)} must override this to copy it as well, or return false to copy through a Bundle.
+     */
+    @Override
+    protected boolean copyStateTo(@NonNull ControllerChangeHandler copy) {
+        AnimatorChangeHandler animatorCopy = (AnimatorChangeHandler) copy;
+        animatorCopy.animationDuration = animationDuration;
+        animatorCopy.removesFromViewOnPush = removesFromViewOnPush;
+        return true;
+    }
+
     @Override
     public void onAbortPush(@NonNull ControllerChangeHandler newHandler, @Nullable Controller newTop) {
         super.onAbortPush(newHandler, newTop);
@@ -116,6 +135,26 @@ public abstract class AnimatorChangeHandler extends ControllerChangeHandler {
      */
     protected abstract void resetFromView(@NonNull View from);
 
+    /**
+     * Should return whether the "from" and "to" views should be put on hardware layers while they animate, so that
+     * animating them doesn't require redrawing their contents on every frame. Handlers that only animate translation
+     * and alpha should also return a {@link ViewPropertyAnimatorSet} from getAnimator when this is true. Views that
+     * already have a layer are left alone. Defaults to {@link Conductor#getHardwareAnimations()}.
+     */
+    protected boolean useHardwareAnimations() {
+        return Conductor.getHardwareAnimations();
+    }
+
+    /**
+     * Should return whether a newly added "to" view that hasn't been laid out yet should be measured and laid out
+     * against the container's current size right away, so the animation can start in the same frame rather than
+     * waiting on the next pre-draw. Containers that haven't been laid out themselves still wait. Defaults to
+     * {@link Conductor#getEagerAnimationLayout()}.
+     */
+    protected boolean measuresViewsEagerly() {
+        return Conductor.getEagerAnimationLayout();
+    }
+
     @Override
     public final void performChange(@NonNull final ViewGroup container, @Nullable final View from, @Nullable final View to, final boolean isPush, @NonNull final ControllerChangeCompletedListener changeListener) {
         boolean readyToAnimate = true;
@@ -128,7 +167,7 @@ public abstract class AnimatorChangeHandler extends ControllerChangeHandler {
                 container.addView(to, container.indexOfChild(from));
             }
 
-            if (to.getWidth() <= 0 && to.getHeight() <= 0) {
+            if (to.getWidth() <= 0 && to.getHeight() <= 0 && !(measuresViewsEagerly() && measureAndLayout(container, to))) {
                 readyToAnimate = false;
                 onAnimationReadyOrAbortedListener = new OnAnimationReadyOrAbortedListener(container, from, to, isPush, true, changeListener);
                 to.getViewTreeObserver().addOnPreDrawListener(onAnimationReadyOrAbortedListener);
@@ -140,7 +179,38 @@ public abstract class AnimatorChangeHandler extends ControllerChangeHandler {
         }
     }
 
+    private static boolean measureAndLayout(@NonNull ViewGroup container, @NonNull View view) {
+        if (container.getWidth() <= 0 || container.getHeight() <= 0) {
+            return false;
+        }
+
+        int horizontalPadding = container.getPaddingLeft() + container.getPaddingRight();
+        int verticalPadding = container.getPaddingTop() + container.getPaddingBottom();
+        int left = container.getPaddingLeft();
+        int top = container.getPaddingTop();
+
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+        if (params instanceof ViewGroup.MarginLayoutParams) {
+            ViewGroup.MarginLayoutParams marginParams = (ViewGroup.MarginLayoutParams) params;
+            horizontalPadding += marginParams.leftMargin + marginParams.rightMargin;
+            verticalPadding += marginParams.topMargin + marginParams.bottomMargin;
+            left += marginParams.leftMargin;
+            top += marginParams.topMargin;
+        }
+
+        int widthMeasureSpec = ViewGroup.getChildMeasureSpec(MeasureSpec.makeMeasureSpec(container.getWidth(), MeasureSpec.EXACTLY), horizontalPadding, params.width);
+        int heightMeasureSpec = ViewGroup.getChildMeasureSpec(MeasureSpec.makeMeasureSpec(container.getHeight(), MeasureSpec.EXACTLY), verticalPadding, params.height);
+        view.measure(widthMeasureSpec, heightMeasureSpec);
+
+        // The container's next layout pass will still position this properly, this only has to give it a size
+        view.layout(left, top, left + view.getMeasuredWidth(), top + view.getMeasuredHeight());
+
+        return view.getWidth() > 0 || view.getHeight() > 0;
+    }
+
     void complete(@NonNull ControllerChangeCompletedListener changeListener, @Nullable AnimatorListener animatorListener) {
+        restoreLayerTypes();
+
         if (!completed) {
             completed = true;
             changeListener.onChangeCompleted();
@@ -179,6 +249,11 @@ public abstract class AnimatorChangeHandler extends ControllerChangeHandler {
             animator.setDuration(animationDuration);
         }
 
+        if (useHardwareAnimations()) {
+            moveToHardwareLayer(from);
+            moveToHardwareLayer(to);
+        }
+
         animator.addListener(new AnimatorListenerAdapter() {
             @Override
             public void onAnimationCancel(Animator animation) {
@@ -212,6 +287,25 @@ public abstract class AnimatorChangeHandler extends ControllerChangeHandler {
         animator.start();
     }
 
+    private void moveToHardwareLayer(@Nullable View view) {
+        if (view != null && view.getLayerType() == View.LAYER_TYPE_NONE) {
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+            hardwareLayerViews.add(view);
+
+            // Render the layer now rather than on the first frame of the animation
+            if (view.getWindowToken() != null) {
+                view.buildLayer();
+            }
+        }
+    }
+
+    private void restoreLayerTypes() {
+        for (View view : hardwareLayerViews) {
+            view.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+        hardwareLayerViews.clear();
+    }
+
     private class OnAnimationReadyOrAbortedListener implements ViewTreeObserver.OnPreDrawListener {
         @NonNull final ViewGroup container;
         @Nullable final View from;
@@ -31,6 +31,10 @@ public class FadeChangeHandler extends AnimatorChangeHandler {
 
     @Override @NonNull
     protected Animator getAnimator(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush, boolean toAddedToContainer) {
+        if (useHardwareAnimations()) {
+            return getViewPropertyAnimator(from, to, isPush, toAddedToContainer);
+        }
+
         AnimatorSet animator = new AnimatorSet();
         if (to != null) {
             float start = toAddedToContainer ? 0 : to.getAlpha();
@@ -44,11 +48,36 @@ public class FadeChangeHandler extends AnimatorChangeHandler {
         return animator;
     }
 
+    @NonNull
+    private Animator getViewPropertyAnimator(@Nullable View from, @Nullable View to, boolean isPush, boolean toAddedToContainer) {
+        ViewPropertyAnimatorSet animator = new ViewPropertyAnimatorSet();
+        if (to != null) {
+            float start = toAddedToContainer ? 0 : to.getAlpha();
+            animator.alpha(to, start, 1);
+        }
+
+        if (from != null && (!isPush || removesFromViewOnPush())) {
+            animator.alpha(from, 0);
+        }
+
+        return animator;
+    }
+
     @Override
     protected void resetFromView(@NonNull View from) {
         from.setAlpha(1);
     }
 
+    @Override
+    protected boolean copyStateTo(@NonNull ControllerChangeHandler copy) {
+        // Subclasses may save more state, which only their Bundle knows about
+        if (getClass() != FadeChangeHandler.class) {
+            return false;
+        }
+
+        return super.copyStateTo(copy);
+    }
+
     @Override @NonNull
     public ControllerChangeHandler copy() {
         return new FadeChangeHandler(getAnimationDuration(), removesFromViewOnPush());
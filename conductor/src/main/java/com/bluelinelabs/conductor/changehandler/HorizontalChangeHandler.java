@@ -31,6 +31,10 @@ public class HorizontalChangeHandler extends AnimatorChangeHandler {
 
     @Override @NonNull
     protected Animator getAnimator(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush, boolean toAddedToContainer) {
+        if (useHardwareAnimations()) {
+            return getViewPropertyAnimator(from, to, isPush);
+        }
+
         AnimatorSet animatorSet = new AnimatorSet();
 
         if (isPush) {
@@ -54,11 +58,45 @@ public class HorizontalChangeHandler extends AnimatorChangeHandler {
         return animatorSet;
     }
 
+    @NonNull
+    private Animator getViewPropertyAnimator(@Nullable View from, @Nullable View to, boolean isPush) {
+        ViewPropertyAnimatorSet animator = new ViewPropertyAnimatorSet();
+
+        if (isPush) {
+            if (from != null) {
+                animator.translationX(from, -from.getWidth());
+            }
+            if (to != null) {
+                animator.translationX(to, to.getWidth(), 0);
+            }
+        } else {
+            if (from != null) {
+                animator.translationX(from, from.getWidth());
+            }
+            if (to != null) {
+                float fromLeft = from != null ? from.getTranslationX() : 0;
+                animator.translationX(to, fromLeft - to.getWidth(), 0);
+            }
+        }
+
+        return animator;
+    }
+
     @Override
     protected void resetFromView(@NonNull View from) {
         from.setTranslationX(0);
     }
 
+    @Override
+    protected boolean copyStateTo(@NonNull ControllerChangeHandler copy) {
+        // Subclasses may save more state, which only their Bundle knows about
+        if (getClass() != HorizontalChangeHandler.class) {
+            return false;
+        }
+
+        return super.copyStateTo(copy);
+    }
+
     @Override @NonNull
     public ControllerChangeHandler copy() {
         return new HorizontalChangeHandler(getAnimationDuration(), removesFromViewOnPush());
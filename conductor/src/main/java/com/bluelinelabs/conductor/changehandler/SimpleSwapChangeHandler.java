@@ -44,6 +44,17 @@ public class SimpleSwapChangeHandler extends ControllerChangeHandler implements
         removesFromViewOnPush = bundle.getBoolean(KEY_REMOVES_FROM_ON_PUSH);
     }
 
+    @Override
+    protected boolean copyStateTo(@NonNull ControllerChangeHandler copy) {
+        // Subclasses may save more state, which only their Bundle knows about
+        if (getClass() != SimpleSwapChangeHandler.class) {
+            return false;
+        }
+
+        ((SimpleSwapChangeHandler) copy).removesFromViewOnPush = removesFromViewOnPush;
+        return true;
+    }
+
     @Override
     public void onAbortPush(@NonNull ControllerChangeHandler newHandler, @Nullable Controller newTop) {
         super.onAbortPush(newHandler, newTop);
@@ -35,6 +35,10 @@ public class VerticalChangeHandler extends AnimatorChangeHandler {
 
     @Override @NonNull
     protected Animator getAnimator(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush, boolean toAddedToContainer) {
+        if (useHardwareAnimations()) {
+            return getViewPropertyAnimator(from, to, isPush);
+        }
+
         AnimatorSet animator = new AnimatorSet();
         List<Animator> viewAnimators = new ArrayList<>();
 
@@ -48,9 +52,32 @@ public class VerticalChangeHandler extends AnimatorChangeHandler {
         return animator;
     }
 
+    @NonNull
+    private Animator getViewPropertyAnimator(@Nullable View from, @Nullable View to, boolean isPush) {
+        ViewPropertyAnimatorSet animator = new ViewPropertyAnimatorSet();
+
+        if (isPush && to != null) {
+            animator.translationY(to, to.getHeight(), 0);
+        } else if (!isPush && from != null) {
+            animator.translationY(from, from.getHeight());
+        }
+
+        return animator;
+    }
+
     @Override
     protected void resetFromView(@NonNull View from) { }
 
+    @Override
+    protected boolean copyStateTo(@NonNull ControllerChangeHandler copy) {
+        // Subclasses may save more state, which only their Bundle knows about
+        if (getClass() != VerticalChangeHandler.class) {
+            return false;
+        }
+
+        return super.copyStateTo(copy);
+    }
+
     @Override @NonNull
     public ControllerChangeHandler copy() {
         return new VerticalChangeHandler(getAnimationDuration(), removesFromViewOnPush());
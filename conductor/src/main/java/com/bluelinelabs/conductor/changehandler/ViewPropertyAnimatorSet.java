@@ -0,0 +1,250 @@
+package com.bluelinelabs.conductor.changehandler;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.TimeInterpolator;
+import android.util.Property;
+import android.view.View;
+import android.view.ViewPropertyAnimator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An {@link Animator} that animates the translation and alpha of Views using their {@link ViewPropertyAnimator}s. These
+ * update the Views' display lists directly instead of setting each property through reflection and invalidating the
+ * parent on every frame like ObjectAnimators do, which keeps frames cheap while the main thread is busy. All Views
+ * are animated together using this Animator's duration, start delay and interpolator.
+ */
+public class ViewPropertyAnimatorSet extends Animator {
+
+    private final List<ViewAnimation> animations = new ArrayList<>();
+    private final List<View> animatingViews = new ArrayList<>();
+
+    private long duration = -1;
+    private long startDelay;
+    @Nullable private TimeInterpolator interpolator;
+    private boolean started;
+    private boolean running;
+    private int remainingAnimations;
+
+    private final AnimatorListenerAdapter viewAnimatorListener = new AnimatorListenerAdapter() {
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (running && --remainingAnimations == 0) {
+                finish(false);
+            }
+        }
+    };
+
+    /**
+     * Animates the View's translationX from its current value to the passed value.
+     */
+    @NonNull
+    public ViewPropertyAnimatorSet translationX(@NonNull View view, float to) {
+        return add(view, View.TRANSLATION_X, Float.NaN, to);
+    }
+
+    @NonNull
+    public ViewPropertyAnimatorSet translationX(@NonNull View view, float from, float to) {
+        return add(view, View.TRANSLATION_X, from, to);
+    }
+
+    /**
+     * Animates the View's translationY from its current value to the passed value.
+     */
+    @NonNull
+    public ViewPropertyAnimatorSet translationY(@NonNull View view, float to) {
+        return add(view, View.TRANSLATION_Y, Float.NaN, to);
+    }
+
+    @NonNull
+    public ViewPropertyAnimatorSet translationY(@NonNull View view, float from, float to) {
+        return add(view, View.TRANSLATION_Y, from, to);
+    }
+
+    /**
+     * Animates the View's alpha from its current value to the passed value.
+     */
+    @NonNull
+    public ViewPropertyAnimatorSet alpha(@NonNull View view, float to) {
+        return add(view, View.ALPHA, Float.NaN, to);
+    }
+
+    @NonNull
+    public ViewPropertyAnimatorSet alpha(@NonNull View view, float from, float to) {
+        return add(view, View.ALPHA, from, to);
+    }
+
+    @NonNull
+    private ViewPropertyAnimatorSet add(@NonNull View view, @NonNull Property<View, Float> property, float from, float to) {
+        animations.add(new ViewAnimation(view, property, from, to));
+        if (!animatingViews.contains(view)) {
+            animatingViews.add(view);
+        }
+        return this;
+    }
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+
+        started = true;
+        running = true;
+        for (AnimatorListener listener : getListenersCopy()) {
+            listener.onAnimationStart(this);
+        }
+
+        for (ViewAnimation animation : animations) {
+            if (!Float.isNaN(animation.from)) {
+                animation.property.set(animation.view, animation.from);
+            }
+        }
+
+        remainingAnimations = animatingViews.size();
+        if (remainingAnimations == 0) {
+            finish(false);
+            return;
+        }
+
+        // Each View has a single ViewPropertyAnimator, so all of its properties are set up before it starts on the next frame
+        for (View view : animatingViews) {
+            ViewPropertyAnimator viewAnimator = view.animate();
+            if (duration >= 0) {
+                viewAnimator.setDuration(duration);
+            }
+            if (interpolator != null) {
+                viewAnimator.setInterpolator(interpolator);
+            }
+            viewAnimator.setStartDelay(startDelay);
+            viewAnimator.setListener(viewAnimatorListener);
+
+            for (ViewAnimation animation : animations) {
+                if (animation.view == view) {
+                    animation.animateTo(viewAnimator);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (running) {
+            stopViewAnimators();
+            finish(true);
+        }
+    }
+
+    @Override
+    public void end() {
+        if (!started) {
+            start();
+        }
+
+        if (running) {
+            stopViewAnimators();
+            for (ViewAnimation animation : animations) {
+                animation.property.set(animation.view, animation.to);
+            }
+            finish(false);
+        }
+    }
+
+    private void stopViewAnimators() {
+        for (View view : animatingViews) {
+            ViewPropertyAnimator viewAnimator = view.animate();
+            viewAnimator.setListener(null);
+            viewAnimator.cancel();
+        }
+    }
+
+    private void finish(boolean canceled) {
+        running = false;
+        for (View view : animatingViews) {
+            view.animate().setListener(null);
+        }
+
+        List<AnimatorListener> listeners = getListenersCopy();
+        if (canceled) {
+            for (AnimatorListener listener : listeners) {
+                listener.onAnimationCancel(this);
+            }
+        }
+        for (AnimatorListener listener : listeners) {
+            listener.onAnimationEnd(this);
+        }
+    }
+
+    @NonNull
+    private List<AnimatorListener> getListenersCopy() {
+        List<AnimatorListener> listeners = getListeners();
+        if (listeners == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(listeners);
+    }
+
+    @Override
+    public long getStartDelay() {
+        return startDelay;
+    }
+
+    @Override
+    public void setStartDelay(long startDelay) {
+        this.startDelay = startDelay;
+    }
+
+    @Override @NonNull
+    public ViewPropertyAnimatorSet setDuration(long duration) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("duration must be a value of zero or greater");
+        }
+        this.duration = duration;
+        return this;
+    }
+
+    @Override
+    public long getDuration() {
+        return duration;
+    }
+
+    @Override
+    public void setInterpolator(@Nullable TimeInterpolator interpolator) {
+        this.interpolator = interpolator;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private static class ViewAnimation {
+        @NonNull final View view;
+        @NonNull final Property<View, Float> property;
+        final float from;
+        final float to;
+
+        ViewAnimation(@NonNull View view, @NonNull Property<View, Float> property, float from, float to) {
+            this.view = view;
+            this.property = property;
+            this.from = from;
+            this.to = to;
+        }
+
+        void animateTo(@NonNull ViewPropertyAnimator viewAnimator) {
+            if (property == View.TRANSLATION_X) {
+                viewAnimator.translationX(to);
+            } else if (property == View.TRANSLATION_Y) {
+                viewAnimator.translationY(to);
+            } else if (property == View.ALPHA) {
+                viewAnimator.alpha(to);
+            }
+        }
+    }
+
+}
@@ -4,29 +4,84 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import android.text.TextUtils;
 
+import java.lang.reflect.Constructor;
+import java.util.HashMap;
+import java.util.Map;
+
 public class ClassUtils {
 
+    // Classes never unload while the process is alive, so lookups by name only need to go through Class.forName once
+    private static final Map<String, Class<?>> classCache = new HashMap<>();
+
+    // Maps each class to its public default constructor, or to null if it doesn't have one
+    private static final Map<Class<?>, Constructor<?>> defaultConstructorCache = new HashMap<>();
+
     @Nullable @SuppressWarnings("unchecked")
     public static <T> Class<? extends T> classForName(@NonNull String className, boolean allowEmptyName) {
         if (allowEmptyName && TextUtils.isEmpty(className)) {
             return null;
         }
 
+        synchronized (classCache) {
+            Class<?> cls = classCache.get(className);
+            if (cls != null) {
+                return (Class<? extends T>)cls;
+            }
+        }
+
         try {
-            return (Class<? extends T>)Class.forName(className);
+            Class<?> cls = Class.forName(className);
+            synchronized (classCache) {
+                classCache.put(className, cls);
+            }
+            return (Class<? extends T>)cls;
         } catch (Exception e) {
             throw new RuntimeException("An exception occurred while finding class for name " + className + ". " + e.getMessage());
         }
     }
 
-    @Nullable @SuppressWarnings("unchecked")
+    @Nullable
     public static <T> T newInstance(@NonNull String className) {
+        Class<? extends T> cls = classForName(className, true);
+        return cls != null ? newInstance(cls) : null;
+    }
+
+    @NonNull @SuppressWarnings("unchecked")
+    public static <T> T newInstance(@NonNull Class<? extends T> cls) {
+        Constructor<?> constructor = getDefaultConstructor(cls);
         try {
-            Class<? extends T> cls = classForName(className, true);
-            return cls != null ? cls.newInstance() : null;
+            if (constructor == null) {
+                throw new NoSuchMethodException(cls.getName() + ".<init>()");
+            }
+            return (T)constructor.newInstance();
         } catch (Exception e) {
-            throw new RuntimeException("An exception occurred while creating a new instance of " + className + ". " + e.getMessage());
+            throw new RuntimeException("An exception occurred while creating a new instance of " + cls.getName() + ". " + e.getMessage());
+        }
+    }
+
+    public static boolean hasDefaultConstructor(@NonNull Class<?> cls) {
+        return getDefaultConstructor(cls) != null;
+    }
+
+    @Nullable
+    private static Constructor<?> getDefaultConstructor(@NonNull Class<?> cls) {
+        synchronized (defaultConstructorCache) {
+            if (defaultConstructorCache.containsKey(cls)) {
+                return defaultConstructorCache.get(cls);
+            }
+        }
+
+        Constructor<?> constructor;
+        try {
+            constructor = cls.getConstructor();
+        } catch (Exception e) {
+            constructor = null;
+        }
+
+        synchronized (defaultConstructorCache) {
+            defaultConstructorCache.put(cls, constructor);
         }
+        return constructor;
     }
 
 }
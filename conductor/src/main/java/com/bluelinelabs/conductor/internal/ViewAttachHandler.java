@@ -18,16 +18,27 @@ public class ViewAttachHandler implements OnAttachStateChangeListener {
         void onViewDetachAfterStop();
     }
 
-    private interface ChildAttachListener {
-        void onAttached();
-    }
-
     private boolean rootAttached = false;
     boolean childrenAttached = false;
     private boolean activityStopped = false;
     private ReportedState reportedState = ReportedState.VIEW_DETACHED;
     private ViewAttachListener attachListener;
-    OnAttachStateChangeListener childOnAttachStateChangeListener;
+
+    // The last view in the root's hierarchy to be attached, which is being listened to until it is. Kept so that it
+    // doesn't have to be found again when the listener is removed.
+    private View pendingChild;
+    private final OnAttachStateChangeListener childAttachStateChangeListener = new OnAttachStateChangeListener() {
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            if (v == pendingChild) {
+                stopListeningForChildAttach();
+                onChildrenAttached();
+            }
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) { }
+    };
 
     public ViewAttachHandler(ViewAttachListener attachListener) {
         this.attachListener = attachListener;
@@ -40,13 +51,7 @@ public class ViewAttachHandler implements OnAttachStateChangeListener {
         }
 
         rootAttached = true;
-        listenForDeepestChildAttach(v, new ChildAttachListener() {
-            @Override
-            public void onAttached() {
-                childrenAttached = true;
-                reportAttached();
-            }
-        });
+        listenForDeepestChildAttach(v);
     }
 
     @Override
@@ -64,11 +69,7 @@ public class ViewAttachHandler implements OnAttachStateChangeListener {
 
     public void unregisterAttachListener(View view) {
         view.removeOnAttachStateChangeListener(this);
-
-        if (childOnAttachStateChangeListener != null && view instanceof ViewGroup) {
-            findDeepestChild((ViewGroup)view).removeOnAttachStateChangeListener(childOnAttachStateChangeListener);
-            childOnAttachStateChangeListener = null;
-        }
+        stopListeningForChildAttach();
     }
 
     public void onActivityStarted() {
@@ -104,35 +105,30 @@ public class ViewAttachHandler implements OnAttachStateChangeListener {
         }
     }
 
-    private void listenForDeepestChildAttach(final View view, final ChildAttachListener attachListener) {
-        if (!(view instanceof ViewGroup)) {
-            attachListener.onAttached();
+    private void listenForDeepestChildAttach(final View view) {
+        // Children are attached after their parents, so the root's hierarchy is fully attached once its deepest
+        // last child is.
+        View deepestChild = view instanceof ViewGroup ? findDeepestChild((ViewGroup)view) : view;
+        if (deepestChild == view || deepestChild.getWindowToken() != null) {
+            onChildrenAttached();
             return;
         }
 
-        ViewGroup viewGroup = (ViewGroup)view;
-        if (viewGroup.getChildCount() == 0) {
-            attachListener.onAttached();
-            return;
-        }
+        stopListeningForChildAttach();
+        pendingChild = deepestChild;
+        deepestChild.addOnAttachStateChangeListener(childAttachStateChangeListener);
+    }
 
-        childOnAttachStateChangeListener = new OnAttachStateChangeListener() {
-            boolean attached = false;
-
-            @Override
-            public void onViewAttachedToWindow(View v) {
-                if (!attached && childOnAttachStateChangeListener != null) {
-                    attached = true;
-                    attachListener.onAttached();
-                    v.removeOnAttachStateChangeListener(this);
-                    childOnAttachStateChangeListener = null;
-                }
-            }
+    private void stopListeningForChildAttach() {
+        if (pendingChild != null) {
+            pendingChild.removeOnAttachStateChangeListener(childAttachStateChangeListener);
+            pendingChild = null;
+        }
+    }
 
-            @Override
-            public void onViewDetachedFromWindow(View v) { }
-        };
-        findDeepestChild(viewGroup).addOnAttachStateChangeListener(childOnAttachStateChangeListener);
+    private void onChildrenAttached() {
+        childrenAttached = true;
+        reportAttached();
     }
 
     private View findDeepestChild(ViewGroup viewGroup) {
@@ -0,0 +1,214 @@
+package com.bluelinelabs.conductor;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.app.Activity;
+import android.view.View;
+import android.view.View.MeasureSpec;
+import android.widget.FrameLayout;
+
+import com.bluelinelabs.conductor.ControllerChangeHandler.ControllerChangeCompletedListener;
+import com.bluelinelabs.conductor.changehandler.FadeChangeHandler;
+import com.bluelinelabs.conductor.changehandler.ViewPropertyAnimatorSet;
+import com.bluelinelabs.conductor.util.ActivityProxy;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class AnimatorChangeHandlerTests {
+
+    private Activity activity;
+    private FrameLayout container;
+    private final List<String> events = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        activity = new ActivityProxy().create(null).getActivity();
+
+        container = new FrameLayout(activity);
+        container.measure(MeasureSpec.makeMeasureSpec(100, MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(100, MeasureSpec.EXACTLY));
+        container.layout(0, 0, 100, 100);
+    }
+
+    @Test
+    public void testAnimatorSetEnd() {
+        View view = new View(activity);
+        ViewPropertyAnimatorSet animator = new ViewPropertyAnimatorSet()
+                .translationX(view, 0, 100)
+                .alpha(view, 1, 0);
+        animator.addListener(new RecordingListener());
+
+        animator.start();
+        animator.end();
+
+        assertEquals(Arrays.asList("start", "end"), events);
+        assertEquals(100, view.getTranslationX(), 0);
+        assertEquals(0, view.getAlpha(), 0);
+        assertFalse(animator.isRunning());
+
+        // Ending again doesn't report anything
+        animator.end();
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    public void testAnimatorSetEndWithoutStart() {
+        View view = new View(activity);
+        ViewPropertyAnimatorSet animator = new ViewPropertyAnimatorSet().translationY(view, 0, 50);
+        animator.addListener(new RecordingListener());
+
+        animator.end();
+
+        assertEquals(Arrays.asList("start", "end"), events);
+        assertEquals(50, view.getTranslationY(), 0);
+    }
+
+    @Test
+    public void testAnimatorSetCancel() {
+        View view = new View(activity);
+        ViewPropertyAnimatorSet animator = new ViewPropertyAnimatorSet().alpha(view, 1, 0);
+        animator.addListener(new RecordingListener());
+
+        animator.start();
+        animator.cancel();
+
+        assertEquals(Arrays.asList("start", "cancel", "end"), events);
+        assertFalse(animator.isRunning());
+
+        // Canceling or ending once it's done doesn't report anything
+        animator.cancel();
+        animator.end();
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    public void testLayerTypesRestoredAfterComplete() {
+        View from = addSizedView();
+        View to = new View(activity);
+        to.layout(0, 0, 100, 100);
+
+        HardwareFadeChangeHandler handler = new HardwareFadeChangeHandler();
+        handler.performChange(container, from, to, true, new RecordingCompletedListener());
+
+        assertEquals(View.LAYER_TYPE_HARDWARE, from.getLayerType());
+        assertEquals(View.LAYER_TYPE_HARDWARE, to.getLayerType());
+
+        handler.completeImmediately();
+
+        assertEquals(View.LAYER_TYPE_NONE, from.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, to.getLayerType());
+        assertEquals(Arrays.asList("completed"), events);
+    }
+
+    @Test
+    public void testExistingLayerTypesLeftAlone() {
+        View from = addSizedView();
+        from.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+        View to = new View(activity);
+        to.layout(0, 0, 100, 100);
+
+        HardwareFadeChangeHandler handler = new HardwareFadeChangeHandler();
+        handler.performChange(container, from, to, true, new RecordingCompletedListener());
+        handler.completeImmediately();
+
+        assertEquals(View.LAYER_TYPE_SOFTWARE, from.getLayerType());
+        assertEquals(View.LAYER_TYPE_NONE, to.getLayerType());
+    }
+
+    @Test
+    public void testEagerMeasureStartsWithoutPreDraw() {
+        View to = new View(activity);
+
+        EagerFadeChangeHandler handler = new EagerFadeChangeHandler();
+        handler.performChange(container, null, to, true, new RecordingCompletedListener());
+
+        // The animation has already started, which is when views are moved onto hardware layers
+        assertEquals(100, to.getWidth());
+        assertEquals(100, to.getHeight());
+        assertEquals(View.LAYER_TYPE_HARDWARE, to.getLayerType());
+
+        handler.completeImmediately();
+        assertEquals(Arrays.asList("completed"), events);
+    }
+
+    @Test
+    public void testWaitsForPreDrawWithoutEagerMeasure() {
+        View to = new View(activity);
+
+        HardwareFadeChangeHandler handler = new HardwareFadeChangeHandler();
+        handler.performChange(container, null, to, true, new RecordingCompletedListener());
+
+        assertEquals(0, to.getWidth());
+        assertEquals(View.LAYER_TYPE_NONE, to.getLayerType());
+    }
+
+    @Test
+    public void testEagerMeasureWaitsForUnmeasuredContainer() {
+        FrameLayout unmeasuredContainer = new FrameLayout(activity);
+        View to = new View(activity);
+
+        EagerFadeChangeHandler handler = new EagerFadeChangeHandler();
+        handler.performChange(unmeasuredContainer, null, to, true, new RecordingCompletedListener());
+
+        assertEquals(0, to.getWidth());
+        assertEquals(View.LAYER_TYPE_NONE, to.getLayerType());
+    }
+
+    private View addSizedView() {
+        View view = new View(activity);
+        container.addView(view);
+        view.layout(0, 0, 100, 100);
+        return view;
+    }
+
+    private class RecordingListener extends AnimatorListenerAdapter {
+        @Override
+        public void onAnimationStart(Animator animation) {
+            events.add("start");
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            events.add("cancel");
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            events.add("end");
+        }
+    }
+
+    private class RecordingCompletedListener implements ControllerChangeCompletedListener {
+        @Override
+        public void onChangeCompleted() {
+            events.add("completed");
+        }
+    }
+
+    public static class HardwareFadeChangeHandler extends FadeChangeHandler {
+        @Override
+        protected boolean useHardwareAnimations() {
+            return true;
+        }
+    }
+
+    public static class EagerFadeChangeHandler extends HardwareFadeChangeHandler {
+        @Override
+        protected boolean measuresViewsEagerly() {
+            return true;
+        }
+    }
+
+}
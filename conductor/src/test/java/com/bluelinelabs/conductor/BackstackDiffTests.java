@@ -0,0 +1,98 @@
+package com.bluelinelabs.conductor;
+
+import com.bluelinelabs.conductor.changehandler.FadeChangeHandler;
+import com.bluelinelabs.conductor.util.TestController;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BackstackDiffTests {
+
+    @Test
+    public void testRemovedRetainedAndMoved() {
+        RouterTransaction transaction1 = RouterTransaction.with(new TestController());
+        RouterTransaction transaction2 = RouterTransaction.with(new TestController());
+        RouterTransaction transaction3 = RouterTransaction.with(new TestController());
+        RouterTransaction transaction4 = RouterTransaction.with(new TestController());
+
+        List<RouterTransaction> oldBackstack = Arrays.asList(transaction1, transaction2, transaction3);
+        List<RouterTransaction> newBackstack = Arrays.asList(transaction3, transaction1, transaction4);
+
+        BackstackDiff diff = BackstackDiff.calculate(oldBackstack, Collections.singletonList(transaction3), newBackstack, Collections.singletonList(transaction4));
+
+        assertEquals(Collections.singletonList(transaction2), diff.removed);
+        assertEquals(Arrays.asList(transaction3, transaction1), diff.retained);
+        assertEquals(Collections.singletonList(transaction1), diff.moved);
+        assertEquals(Collections.singletonList(transaction4), diff.newlyVisible);
+        assertEquals(Collections.singletonList(transaction3), diff.noLongerVisible);
+        assertTrue(diff.newRootRequiresPush());
+        assertTrue(diff.visibleTransactionsChanged());
+    }
+
+    @Test
+    public void testVisibleTransactions() {
+        RouterTransaction transaction1 = RouterTransaction.with(new TestController());
+        RouterTransaction transaction2 = RouterTransaction.with(new TestController()).pushChangeHandler(new FadeChangeHandler(false));
+        RouterTransaction transaction3 = RouterTransaction.with(new TestController()).pushChangeHandler(new FadeChangeHandler(false));
+
+        List<RouterTransaction> oldBackstack = Arrays.asList(transaction1, transaction2, transaction3);
+        List<RouterTransaction> newBackstack = Arrays.asList(transaction1, transaction2);
+
+        BackstackDiff diff = BackstackDiff.calculate(oldBackstack, oldBackstack, newBackstack, newBackstack);
+
+        assertEquals(Collections.singletonList(transaction3), diff.noLongerVisible);
+        assertTrue(diff.newlyVisible.isEmpty());
+        assertTrue(diff.moved.isEmpty());
+        assertEquals(transaction1, diff.visibleBelow(transaction2));
+        assertNull(diff.visibleBelow(transaction1));
+        assertNull(diff.visibleBelow(transaction3));
+        assertFalse(diff.newRootRequiresPush());
+        assertTrue(diff.visibleTransactionsChanged());
+
+        diff = BackstackDiff.calculate(newBackstack, newBackstack, newBackstack, newBackstack);
+        assertFalse(diff.visibleTransactionsChanged());
+        assertTrue(diff.removed.isEmpty());
+    }
+
+    @Test
+    public void testNewlyVisibleOrder() {
+        RouterTransaction root = RouterTransaction.with(new TestController());
+        RouterTransaction oldTop = RouterTransaction.with(new TestController());
+        RouterTransaction middle = RouterTransaction.with(new TestController()).pushChangeHandler(new FadeChangeHandler(false));
+        RouterTransaction top = RouterTransaction.with(new TestController()).pushChangeHandler(new FadeChangeHandler(false));
+
+        List<RouterTransaction> oldBackstack = Arrays.asList(root, oldTop);
+        List<RouterTransaction> newBackstack = Arrays.asList(root, middle, top);
+
+        BackstackDiff diff = BackstackDiff.calculate(oldBackstack, Collections.singletonList(oldTop), newBackstack, newBackstack);
+
+        // Pushed from the root up, each on top of the one beneath it
+        assertEquals(Arrays.asList(root, middle, top), diff.newlyVisible);
+        assertEquals(root, diff.visibleBelow(middle));
+        assertEquals(middle, diff.visibleBelow(top));
+        assertEquals(Collections.singletonList(oldTop), diff.noLongerVisible);
+        assertEquals(Collections.singletonList(root), diff.retained);
+        assertFalse(diff.newRootRequiresPush());
+    }
+
+    @Test
+    public void testDuplicateControllers() {
+        Controller controller = new TestController();
+        List<RouterTransaction> newBackstack = Arrays.asList(RouterTransaction.with(controller), RouterTransaction.with(controller));
+
+        try {
+            BackstackDiff.calculate(Collections.<RouterTransaction>emptyList(), Collections.<RouterTransaction>emptyList(), newBackstack, newBackstack);
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException ignored) { }
+    }
+
+}
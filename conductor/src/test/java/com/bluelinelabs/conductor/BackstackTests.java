@@ -5,7 +5,13 @@ import com.bluelinelabs.conductor.util.TestController;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Iterator;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class BackstackTests {
 
@@ -66,4 +72,56 @@ public class BackstackTests {
         assertEquals(1, backstack.size());
         assertEquals(transaction1, backstack.peek());
     }
+
+    @Test
+    public void testTagIndex() {
+        RouterTransaction transaction1 = RouterTransaction.with(new TestController()).tag("a");
+        RouterTransaction transaction2 = RouterTransaction.with(new TestController()).tag("b");
+        RouterTransaction transaction3 = RouterTransaction.with(new TestController()).tag("a");
+
+        backstack.push(transaction1);
+        backstack.push(transaction2);
+        backstack.push(transaction3);
+
+        assertEquals(transaction3, backstack.getTransactionWithTag("a"));
+        assertEquals(transaction2, backstack.getTransactionWithTag("b"));
+        assertNull(backstack.getTransactionWithTag("c"));
+
+        backstack.pop();
+        assertEquals(transaction1, backstack.getTransactionWithTag("a"));
+
+        backstack.remove(transaction2);
+        assertNull(backstack.getTransactionWithTag("b"));
+
+        backstack.setBackstack(Arrays.asList(transaction2, transaction3));
+        assertEquals(transaction3, backstack.getTransactionWithTag("a"));
+        assertEquals(transaction2, backstack.getTransactionWithTag("b"));
+    }
+
+    @Test
+    public void testInstanceIdIndex() {
+        RouterTransaction transaction1 = RouterTransaction.with(new TestController());
+        RouterTransaction transaction2 = RouterTransaction.with(new TestController());
+        RouterTransaction transaction3 = RouterTransaction.with(new TestController());
+
+        backstack.push(transaction1);
+        backstack.push(transaction2);
+        backstack.push(transaction3);
+
+        assertEquals(transaction2.controller(), backstack.getControllerWithInstanceId(transaction2.controller().getInstanceId()));
+        assertTrue(backstack.contains(transaction3.controller()));
+
+        backstack.popTo(transaction1);
+
+        assertNull(backstack.getControllerWithInstanceId(transaction2.controller().getInstanceId()));
+        assertFalse(backstack.contains(transaction3.controller()));
+        assertTrue(backstack.contains(transaction1));
+
+        Iterator<RouterTransaction> iterator = backstack.iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertFalse(backstack.contains(transaction1.controller()));
+        assertEquals(0, backstack.size());
+    }
 }
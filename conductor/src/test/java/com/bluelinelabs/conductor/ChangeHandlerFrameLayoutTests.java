@@ -0,0 +1,100 @@
+package com.bluelinelabs.conductor;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.View.MeasureSpec;
+
+import com.bluelinelabs.conductor.util.ActivityProxy;
+import com.bluelinelabs.conductor.util.MockChangeHandler;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest = Config.NONE)
+public class ChangeHandlerFrameLayoutTests {
+
+    private ChangeHandlerFrameLayout layout;
+    private final List<Integer> childActions = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        Activity activity = new ActivityProxy().create(null).getActivity();
+
+        View child = new View(activity);
+        child.setOnTouchListener(new View.OnTouchListener() {
+            @Override
+            public boolean onTouch(View v, MotionEvent event) {
+                childActions.add(event.getActionMasked());
+                return true;
+            }
+        });
+
+        layout = new ChangeHandlerFrameLayout(activity);
+        layout.addView(child);
+        layout.measure(MeasureSpec.makeMeasureSpec(100, MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(100, MeasureSpec.EXACTLY));
+        layout.layout(0, 0, 100, 100);
+    }
+
+    @Test
+    public void testTouchesDroppedDuringChange() {
+        startChange();
+        tap(SystemClock.uptimeMillis());
+        completeChange();
+
+        assertEquals(0, childActions.size());
+    }
+
+    @Test
+    public void testTouchesReplayedAfterChange() {
+        layout.setBuffersTouchesDuringChanges(true);
+
+        startChange();
+        tap(SystemClock.uptimeMillis());
+        assertEquals(0, childActions.size());
+
+        completeChange();
+        assertEquals(2, childActions.size());
+        assertEquals(MotionEvent.ACTION_DOWN, (int)childActions.get(0));
+        assertEquals(MotionEvent.ACTION_UP, (int)childActions.get(1));
+    }
+
+    @Test
+    public void testStaleTouchesDroppedAfterChange() {
+        layout.setBuffersTouchesDuringChanges(true);
+
+        startChange();
+        tap(SystemClock.uptimeMillis() - layout.getBufferedTouchTimeout() - 1);
+        completeChange();
+
+        assertEquals(0, childActions.size());
+    }
+
+    private void startChange() {
+        layout.onChangeStarted(null, null, true, layout, MockChangeHandler.defaultHandler());
+    }
+
+    private void completeChange() {
+        layout.onChangeCompleted(null, null, true, layout, MockChangeHandler.defaultHandler());
+    }
+
+    private void tap(long downTime) {
+        MotionEvent down = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 10, 10, 0);
+        MotionEvent up = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_UP, 10, 10, 0);
+        layout.dispatchTouchEvent(down);
+        layout.dispatchTouchEvent(up);
+        down.recycle();
+        up.recycle();
+    }
+
+}
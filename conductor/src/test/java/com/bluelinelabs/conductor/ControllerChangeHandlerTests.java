@@ -1,5 +1,12 @@
 package com.bluelinelabs.conductor;
 
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import com.bluelinelabs.conductor.changehandler.FadeChangeHandler;
 import com.bluelinelabs.conductor.changehandler.HorizontalChangeHandler;
 import com.bluelinelabs.conductor.util.TestController;
@@ -9,6 +16,10 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @RunWith(RobolectricTestRunner.class)
 public class ControllerChangeHandlerTests {
@@ -39,4 +50,107 @@ public class ControllerChangeHandlerTests {
         assertEquals(fadeChangeHandler.removesFromViewOnPush(), restoredFadeCast.removesFromViewOnPush());
     }
 
+    @Test
+    public void testDefaultCopy() {
+        StatefulChangeHandler changeHandler = new StatefulChangeHandler();
+        changeHandler.value = 42;
+
+        ControllerChangeHandler copy = changeHandler.copy();
+
+        assertNotSame(changeHandler, copy);
+        assertEquals(StatefulChangeHandler.class, copy.getClass());
+        assertEquals(42, ((StatefulChangeHandler) copy).value);
+    }
+
+    @Test
+    public void testCopyStateHook() {
+        DirectCopyChangeHandler changeHandler = new DirectCopyChangeHandler();
+        changeHandler.value = 42;
+
+        DirectCopyChangeHandler copy = (DirectCopyChangeHandler) changeHandler.copy();
+
+        assertEquals(42, copy.value);
+        assertFalse(changeHandler.savedToBundle);
+    }
+
+    @Test
+    public void testBuiltInHandlerCopy() {
+        FadeChangeHandler fadeChangeHandler = new FadeChangeHandler(120, false);
+
+        FadeChangeHandler copy = (FadeChangeHandler) fadeChangeHandler.copy();
+
+        assertNotSame(fadeChangeHandler, copy);
+        assertEquals(120, copy.getAnimationDuration());
+        assertFalse(copy.removesFromViewOnPush());
+    }
+
+    @Test
+    public void testBuiltInHandlerSubclassesCopyThroughBundle() {
+        ControllerChangeHandler fadeChangeHandler = new FadeChangeHandler(120, false);
+        FadeChangeHandler copy = new FadeChangeHandler();
+        assertTrue(fadeChangeHandler.copyStateTo(copy));
+        assertEquals(120, copy.getAnimationDuration());
+        assertFalse(copy.removesFromViewOnPush());
+
+        // Only the subclass's Bundle knows about any state it adds
+        ControllerChangeHandler subclassChangeHandler = new FadeSubclassChangeHandler();
+        assertFalse(subclassChangeHandler.copyStateTo(new FadeSubclassChangeHandler()));
+    }
+
+    @Test
+    public void testMissingDefaultConstructor() {
+        try {
+            new NoDefaultConstructorChangeHandler(0);
+            fail("Expected a RuntimeException");
+        } catch (RuntimeException ignored) { }
+    }
+
+    public static class StatefulChangeHandler extends ControllerChangeHandler {
+        private static final String KEY_VALUE = "StatefulChangeHandler.value";
+
+        int value;
+
+        @Override
+        public void performChange(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush, @NonNull ControllerChangeCompletedListener changeListener) {
+            changeListener.onChangeCompleted();
+        }
+
+        @Override
+        public void saveToBundle(@NonNull Bundle bundle) {
+            bundle.putInt(KEY_VALUE, value);
+        }
+
+        @Override
+        public void restoreFromBundle(@NonNull Bundle bundle) {
+            value = bundle.getInt(KEY_VALUE);
+        }
+    }
+
+    public static class DirectCopyChangeHandler extends StatefulChangeHandler {
+        boolean savedToBundle;
+
+        @Override
+        public void saveToBundle(@NonNull Bundle bundle) {
+            super.saveToBundle(bundle);
+            savedToBundle = true;
+        }
+
+        @Override
+        protected boolean copyStateTo(@NonNull ControllerChangeHandler copy) {
+            ((DirectCopyChangeHandler) copy).value = value;
+            return true;
+        }
+    }
+
+    public static class FadeSubclassChangeHandler extends FadeChangeHandler { }
+
+    public static class NoDefaultConstructorChangeHandler extends ControllerChangeHandler {
+        public NoDefaultConstructorChangeHandler(int ignored) { }
+
+        @Override
+        public void performChange(@NonNull ViewGroup container, @Nullable View from, @Nullable View to, boolean isPush, @NonNull ControllerChangeCompletedListener changeListener) {
+            changeListener.onChangeCompleted();
+        }
+    }
+
 }
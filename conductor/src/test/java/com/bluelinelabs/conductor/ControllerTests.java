@@ -3,12 +3,20 @@ package com.bluelinelabs.conductor;
 import android.app.Activity;
 import android.content.Intent;
 import android.os.Bundle;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import android.view.Menu;
+import android.view.MenuInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.PopupMenu;
 
 import com.bluelinelabs.conductor.Controller.RetainViewMode;
 import com.bluelinelabs.conductor.util.ActivityProxy;
 import com.bluelinelabs.conductor.util.CallState;
+import com.bluelinelabs.conductor.util.MockChangeHandler;
+import com.bluelinelabs.conductor.util.TestActivity;
 import com.bluelinelabs.conductor.util.TestController;
 import com.bluelinelabs.conductor.util.ViewUtils;
 
@@ -17,11 +25,20 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(manifest = Config.NONE)
@@ -72,6 +89,34 @@ public class ControllerTests {
         assertNull(controller.getView());
     }
 
+    @Test
+    public void testViewRecycling() {
+        RecyclingController controller1 = new RecyclingController();
+        controller1.setRouter(router);
+        controller1.setRetainViewMode(RetainViewMode.RECYCLE);
+
+        View view = controller1.inflate(router.container);
+        ViewUtils.reportAttached(view, true);
+        ViewUtils.reportAttached(view, false);
+        assertNull(controller1.getView());
+
+        RecyclingController controller2 = new RecyclingController();
+        controller2.setRouter(router);
+        controller2.setRetainViewMode(RetainViewMode.RECYCLE);
+
+        assertEquals(view, controller2.inflate(router.container));
+        assertEquals(0, controller2.currentCallState.createViewCalls);
+        assertEquals(1, controller2.bindRecycledViewCalls);
+
+        // The pool is empty again, so the next instance has to create its own view
+        RecyclingController controller3 = new RecyclingController();
+        controller3.setRouter(router);
+        controller3.setRetainViewMode(RetainViewMode.RECYCLE);
+
+        assertTrue(view != controller3.inflate(router.container));
+        assertEquals(1, controller3.currentCallState.createViewCalls);
+    }
+
     @Test
     public void testActivityResult() {
         TestController controller = new TestController();
@@ -128,6 +173,64 @@ public class ControllerTests {
         assertCalls(parentExpectedCallState, parent);
     }
 
+    @Test
+    public void testActivityResultUnregisteredOnDestroy() {
+        TestController bottom = new TestController();
+        TestController top = new TestController();
+        router.pushController(RouterTransaction.with(bottom));
+        router.pushController(RouterTransaction.with(top));
+
+        bottom.registerForActivityResult(1);
+        top.registerForActivityResult(2);
+        top.registerForActivityResult(3);
+
+        // Request codes can be taken over by another Controller
+        bottom.registerForActivityResult(3);
+
+        router.popController(top);
+        router.onActivityResult(2, Activity.RESULT_OK, null);
+        assertEquals(0, top.currentCallState.onActivityResultCalls);
+
+        router.onActivityResult(1, Activity.RESULT_OK, null);
+        router.onActivityResult(3, Activity.RESULT_OK, null);
+        assertEquals(2, bottom.currentCallState.onActivityResultCalls);
+    }
+
+    @Test
+    public void testActivityResultReregisteredAndRestored() {
+        TestController bottom = new TestController();
+        TestController top = new TestController();
+        router.pushController(RouterTransaction.with(bottom).tag("bottom"));
+        router.pushController(RouterTransaction.with(top).tag("top"));
+
+        LifecycleHandler lifecycleHandler = LifecycleHandler.install(activityProxy.getActivity());
+        top.registerForActivityResult(1);
+        bottom.registerForActivityResult(1);
+
+        // The top Controller's only request code was taken over, so nothing is kept for it anymore
+        assertFalse(lifecycleHandler.hasActivityRequestCodes(top.getInstanceId()));
+        assertTrue(lifecycleHandler.hasActivityRequestCodes(bottom.getInstanceId()));
+
+        top.registerForActivityResult(2);
+
+        Bundle bundle = new Bundle();
+        activityProxy.saveInstanceState(bundle).pause().stop(true).destroy();
+        createActivityController(bundle);
+
+        TestController restoredBottom = (TestController)router.getControllerWithTag("bottom");
+        TestController restoredTop = (TestController)router.getControllerWithTag("top");
+        router.onActivityResult(1, Activity.RESULT_OK, null);
+        router.onActivityResult(2, Activity.RESULT_OK, null);
+        assertEquals(1, restoredBottom.currentCallState.onActivityResultCalls);
+        assertEquals(1, restoredTop.currentCallState.onActivityResultCalls);
+
+        // Restored request codes are dropped along with their Controller
+        lifecycleHandler = LifecycleHandler.install(activityProxy.getActivity());
+        router.popController(restoredTop);
+        assertFalse(lifecycleHandler.hasActivityRequestCodes(restoredTop.getInstanceId()));
+        assertTrue(lifecycleHandler.hasActivityRequestCodes(restoredBottom.getInstanceId()));
+    }
+
     @Test
     public void testPermissionResult() {
         final String[] requestedPermissions = new String[] {"test"};
@@ -263,6 +366,52 @@ public class ControllerTests {
         assertCalls(parentExpectedCallState, parent);
     }
 
+    @Test
+    public void testOptionsMenuHierarchyOrder() {
+        List<Controller> menuOrder = new ArrayList<>();
+        MenuController parent = new MenuController();
+        parent.menuOrder = menuOrder;
+        MenuController child = new MenuController();
+        child.menuOrder = menuOrder;
+
+        router.pushController(RouterTransaction.with(parent));
+        parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.VIEW_ID))
+                .setRoot(RouterTransaction.with(child));
+
+        // Parents are still called before their children when they start contributing to the menu afterwards
+        child.setHasOptionsMenu(true);
+        parent.setHasOptionsMenu(true);
+
+        Activity activity = activityProxy.getActivity();
+        router.onCreateOptionsMenu(new PopupMenu(activity, router.container).getMenu(), activity.getMenuInflater());
+        assertEquals(Arrays.<Controller>asList(parent, child), menuOrder);
+    }
+
+    @Test
+    public void testOptionsMenuInvalidationsCollapsed() {
+        TestController first = new TestController();
+        TestController second = new TestController();
+        router.pushController(RouterTransaction.with(first));
+        router.pushController(RouterTransaction.with(second).pushChangeHandler(MockChangeHandler.noRemoveViewOnPushHandler()));
+
+        TestActivity activity = activityProxy.getActivity();
+        ShadowLooper.pauseMainLooper();
+        int invalidateCalls = activity.invalidateOptionsMenuCalls;
+
+        // Every one of these changes what's in the menu, but they all happen before the next frame
+        first.setHasOptionsMenu(true);
+        second.setHasOptionsMenu(true);
+        first.setOptionsMenuHidden(true);
+        assertEquals(invalidateCalls, activity.invalidateOptionsMenuCalls);
+
+        ShadowLooper.unPauseMainLooper();
+        assertEquals(invalidateCalls + 1, activity.invalidateOptionsMenuCalls);
+
+        // Once that invalidation has run, the next change invalidates the menu again
+        first.setOptionsMenuHidden(false);
+        assertEquals(invalidateCalls + 2, activity.invalidateOptionsMenuCalls);
+    }
+
     @Test
     public void testAddRemoveChildControllers() {
         TestController parent = new TestController();
@@ -405,8 +554,240 @@ public class ControllerTests {
         assertEquals(0, childRouter.getBackstackSize());
     }
 
+    @Test
+    public void testControllerFactory() {
+        final List<String> createdClassNames = new ArrayList<>();
+        Conductor.setControllerFactory(new ControllerFactory() {
+            @Override
+            public boolean canCreate(@NonNull String className) {
+                return TestController.class.getName().equals(className);
+            }
+
+            @Nullable
+            @Override
+            public Controller newInstance(@NonNull String className, @Nullable Bundle args) {
+                createdClassNames.add(className);
+                return canCreate(className) ? new TestController() : null;
+            }
+        });
+
+        try {
+            Bundle args = new Bundle();
+            args.putString("key", "value");
+            Controller controller = new ArgsController(args);
+
+            Controller restored = Controller.newInstance(controller.saveInstanceState());
+            assertTrue(restored instanceof ArgsController);
+            assertEquals("value", restored.getArgs().getString("key"));
+            assertEquals(controller.getInstanceId(), restored.getInstanceId());
+
+            controller = new TestController();
+            controller.getArgs().putString("key", "value");
+
+            restored = Controller.newInstance(controller.saveInstanceState());
+            assertTrue(restored instanceof TestController);
+            assertEquals("value", restored.getArgs().getString("key"));
+            assertEquals(controller.getInstanceId(), restored.getInstanceId());
+
+            assertEquals(Arrays.asList(ArgsController.class.getName(), TestController.class.getName()), createdClassNames);
+        } finally {
+            Conductor.setControllerFactory(null);
+        }
+    }
+
+    @Test
+    public void testControllerFactoryReturningWrongType() {
+        Conductor.setControllerFactory(new ControllerFactory() {
+            @Override
+            public boolean canCreate(@NonNull String className) {
+                return true;
+            }
+
+            @Nullable
+            @Override
+            public Controller newInstance(@NonNull String className, @Nullable Bundle args) {
+                return new TestController();
+            }
+        });
+
+        try {
+            Controller.newInstance(new ArgsController(new Bundle()).saveInstanceState());
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException ignored) {
+        } finally {
+            Conductor.setControllerFactory(null);
+        }
+    }
+
+    @Test
+    public void testInstanceIds() {
+        Set<String> instanceIds = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(instanceIds.add(new TestController().getInstanceId()));
+        }
+
+        // Ids saved by older versions are UUIDs and must survive a restore unchanged
+        TestController controller = new TestController();
+        controller.instanceId = "8c4f0e46-5a0b-4f7e-9f0a-2b1c3d4e5f60";
+        Controller restored = Controller.newInstance(controller.saveInstanceState());
+        assertEquals("8c4f0e46-5a0b-4f7e-9f0a-2b1c3d4e5f60", restored.getInstanceId());
+    }
+
+    @Test
+    public void testTracer() {
+        final List<String> sections = new ArrayList<>();
+        final int[] openSections = new int[1];
+        Conductor.setTracer(new ConductorTracer() {
+            @Override
+            public void beginSection(@NonNull String name) {
+                sections.add(name);
+                openSections[0]++;
+            }
+
+            @Override
+            public void endSection() {
+                openSections[0]--;
+            }
+        });
+
+        try {
+            TestController controller = new TestController();
+            router.pushController(RouterTransaction.with(controller));
+            controller.saveInstanceState();
+
+            assertTrue(sections.contains("Controller.inflate TestController"));
+            assertTrue(sections.contains("Controller.onCreateView TestController"));
+            assertTrue(sections.contains("Controller.attach TestController"));
+            assertTrue(sections.contains("Controller.saveInstanceState TestController"));
+            assertEquals(0, openSections[0]);
+        } finally {
+            Conductor.setTracer(null);
+        }
+    }
+
+    @Test
+    public void testActivityCallbacksOnlyReachInterestedControllers() {
+        TestController hidden = new TestController();
+        PausingController pausing = new PausingController();
+        TestController top = new TestController();
+        router.pushController(RouterTransaction.with(hidden));
+        router.pushController(RouterTransaction.with(pausing));
+        router.pushController(RouterTransaction.with(top));
+
+        assertNull(hidden.getView());
+        assertNull(pausing.getView());
+
+        List<Controller> registered = Arrays.asList(router.getActivityCallbackRegistry().getControllers());
+        assertTrue(registered.contains(top));
+        assertTrue(registered.contains(pausing));
+        assertFalse(registered.contains(hidden));
+
+        activityProxy.pause();
+        assertEquals(1, pausing.activityPausedCalls);
+
+        router.popController(pausing);
+        assertFalse(Arrays.asList(router.getActivityCallbackRegistry().getControllers()).contains(pausing));
+    }
+
+    @Test
+    public void testActivityCallbacksDispatchedInHierarchyOrder() {
+        TestController parent = new TestController();
+        TestController child = new TestController();
+        TestController top = new TestController();
+        router.setRoot(RouterTransaction.with(parent));
+        parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.VIEW_ID))
+                .setRoot(RouterTransaction.with(child));
+
+        // Registered after the others, but it's on top of them so it comes first
+        router.pushController(RouterTransaction.with(top).pushChangeHandler(MockChangeHandler.noRemoveViewOnPushHandler()));
+
+        assertEquals(Arrays.<Controller>asList(top, parent, child), Arrays.asList(router.getActivityCallbackRegistry().getControllers()));
+    }
+
+    @Test
+    public void testActivityCallbackOrderFollowsBackstackReorder() {
+        RouterTransaction bottom = RouterTransaction.with(new PausingController());
+        RouterTransaction middle = RouterTransaction.with(new PausingController());
+        RouterTransaction top = RouterTransaction.with(new PausingController());
+        router.setBackstack(Arrays.asList(bottom, middle, top), null);
+
+        Controller[] controllers = router.getActivityCallbackRegistry().getControllers();
+        assertEquals(Arrays.asList(top.controller(), middle.controller(), bottom.controller()), Arrays.asList(controllers));
+
+        // The same Controllers stay registered, but in a different order
+        router.setBackstack(Arrays.asList(top, bottom, middle), null);
+
+        controllers = router.getActivityCallbackRegistry().getControllers();
+        assertEquals(Arrays.asList(middle.controller(), bottom.controller(), top.controller()), Arrays.asList(controllers));
+    }
+
+    @Test
+    public void testDetachedChildRouterStateHandedOver() {
+        TestController parent = new TestController();
+        FrameLayout container = new FrameLayout(activityProxy.getActivity());
+        container.setId(TestController.VIEW_ID);
+        Router childRouter = parent.getChildRouter(container);
+
+        // The parent isn't in a Router yet, so this is kept by the child Router until it is
+        childRouter.setMaxRecycledViews(RecyclingController.class, 0);
+        router.pushController(RouterTransaction.with(parent));
+
+        RecyclingController controller1 = new RecyclingController();
+        controller1.setRouter(router);
+        controller1.setRetainViewMode(RetainViewMode.RECYCLE);
+
+        View view = controller1.inflate(router.container);
+        ViewUtils.reportAttached(view, true);
+        ViewUtils.reportAttached(view, false);
+
+        RecyclingController controller2 = new RecyclingController();
+        controller2.setRouter(router);
+        controller2.setRetainViewMode(RetainViewMode.RECYCLE);
+
+        assertTrue(view != controller2.inflate(router.container));
+        assertEquals(0, controller2.bindRecycledViewCalls);
+    }
+
     private void assertCalls(CallState callState, TestController controller) {
         assertEquals("Expected call counts and controller call counts do not match.", callState, controller.currentCallState);
     }
 
+    public static class ArgsController extends TestController {
+        public ArgsController(Bundle args) {
+            super();
+            getArgs().putAll(args);
+        }
+    }
+
+    public static class MenuController extends TestController {
+        List<Controller> menuOrder;
+
+        @Override
+        public void onCreateOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
+            super.onCreateOptionsMenu(menu, inflater);
+            if (menuOrder != null) {
+                menuOrder.add(this);
+            }
+        }
+    }
+
+    public static class PausingController extends TestController {
+        int activityPausedCalls;
+
+        @Override
+        protected void onActivityPaused(@NonNull Activity activity) {
+            activityPausedCalls++;
+        }
+    }
+
+    public static class RecyclingController extends TestController {
+        int bindRecycledViewCalls;
+
+        @Override
+        protected boolean onBindRecycledView(@NonNull View view, @NonNull ViewGroup container, @Nullable Bundle savedViewState) {
+            bindRecycledViewCalls++;
+            return true;
+        }
+    }
+
 }
@@ -0,0 +1,130 @@
+package com.bluelinelabs.conductor;
+
+import android.os.Bundle;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bluelinelabs.conductor.Controller.LifecycleListener;
+import com.bluelinelabs.conductor.changehandler.SimpleSwapChangeHandler;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LifecycleListenerDispatchTests {
+
+    private final ControllerChangeHandler changeHandler = new SimpleSwapChangeHandler();
+
+    private Controller controller;
+    private CountingLifecycleListener listener1;
+    private CountingLifecycleListener listener2;
+
+    @Before
+    public void setup() {
+        controller = new EmptyController();
+        listener1 = new CountingLifecycleListener();
+        listener2 = new CountingLifecycleListener();
+    }
+
+    @Test
+    public void testAddRemove() {
+        controller.addLifecycleListener(listener1);
+        controller.addLifecycleListener(listener1);
+        controller.addLifecycleListener(listener2);
+        performTransition();
+
+        assertEquals(1, listener1.changeStarts);
+        assertEquals(1, listener2.changeStarts);
+
+        controller.removeLifecycleListener(listener1);
+        performTransition();
+
+        assertEquals(1, listener1.changeStarts);
+        assertEquals(2, listener2.changeStarts);
+
+        controller.removeLifecycleListener(listener2);
+        controller.removeLifecycleListener(listener2);
+        performTransition();
+
+        assertEquals(1, listener1.changeStarts);
+        assertEquals(2, listener2.changeStarts);
+    }
+
+    @Test
+    public void testRemoveDuringDispatch() {
+        controller.addLifecycleListener(new LifecycleListener() {
+            @Override
+            public void onChangeStart(@NonNull Controller controller, @NonNull ControllerChangeHandler changeHandler, @NonNull ControllerChangeType changeType) {
+                controller.removeLifecycleListener(this);
+                controller.removeLifecycleListener(listener1);
+            }
+        });
+        controller.addLifecycleListener(listener1);
+
+        performTransition();
+
+        // The removal only takes effect for the next event
+        assertEquals(1, listener1.changeStarts);
+        assertEquals(0, listener1.changeEnds);
+
+        performTransition();
+
+        assertEquals(1, listener1.changeStarts);
+        assertEquals(0, listener1.changeEnds);
+    }
+
+    @Test
+    public void testAddDuringDispatch() {
+        controller.addLifecycleListener(new LifecycleListener() {
+            @Override
+            public void onChangeStart(@NonNull Controller controller, @NonNull ControllerChangeHandler changeHandler, @NonNull ControllerChangeType changeType) {
+                controller.addLifecycleListener(listener1);
+            }
+        });
+
+        performTransition();
+
+        // The listener missed the event it was added during, but gets every one after it
+        assertEquals(0, listener1.changeStarts);
+        assertEquals(1, listener1.changeEnds);
+
+        performTransition();
+
+        assertEquals(1, listener1.changeStarts);
+        assertEquals(2, listener1.changeEnds);
+    }
+
+    private void performTransition() {
+        controller.changeStarted(changeHandler, ControllerChangeType.PUSH_ENTER);
+        controller.changeEnded(changeHandler, ControllerChangeType.PUSH_ENTER);
+    }
+
+    public static class EmptyController extends Controller {
+        @NonNull
+        @Override
+        protected View onCreateView(@NonNull LayoutInflater inflater, @NonNull ViewGroup container, @Nullable Bundle savedViewState) {
+            return new View(inflater.getContext());
+        }
+    }
+
+    private static class CountingLifecycleListener extends LifecycleListener {
+        int changeStarts;
+        int changeEnds;
+
+        @Override
+        public void onChangeStart(@NonNull Controller controller, @NonNull ControllerChangeHandler changeHandler, @NonNull ControllerChangeType changeType) {
+            changeStarts++;
+        }
+
+        @Override
+        public void onChangeEnd(@NonNull Controller controller, @NonNull ControllerChangeHandler changeHandler, @NonNull ControllerChangeType changeType) {
+            changeEnds++;
+        }
+    }
+
+}
@@ -3,6 +3,10 @@ package com.bluelinelabs.conductor;
 import android.os.Bundle;
 import android.view.ViewGroup;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bluelinelabs.conductor.ControllerChangeHandler.ControllerChangeListener;
 import com.bluelinelabs.conductor.util.ActivityProxy;
 import com.bluelinelabs.conductor.util.AttachFakingFrameLayout;
 import com.bluelinelabs.conductor.util.MockChangeHandler;
@@ -13,9 +17,16 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 @RunWith(RobolectricTestRunner.class)
@@ -310,6 +321,122 @@ public class ReattachCaseTests {
         assertTrue(controller2.isAttached());
     }
 
+    @Test
+    public void testPendingChangesWaitForContainerAttach() {
+        Controller controller1 = new TestController();
+        Controller controller2 = new TestController();
+
+        ActivityProxy activityProxy = new ActivityProxy().create(null);
+        AttachFakingFrameLayout container = new AttachFakingFrameLayout(activityProxy.getActivity());
+        container.setNeedDelayPost(true); // the router won't see its container as fully attached until these run
+
+        activityProxy.setView(container);
+
+        Router router = Conductor.attachRouter(activityProxy.getActivity(), container);
+        router.setRoot(RouterTransaction.with(controller1));
+        router.pushController(RouterTransaction.with(controller2));
+
+        activityProxy.start().resume();
+
+        // The frame comes before the container is fully attached, so the push has to keep waiting
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+        assertNull(controller2.getView());
+        assertTrue(controller1.isAttached());
+
+        container.setNeedDelayPost(false);
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertTrue(controller2.isAttached());
+        assertFalse(controller1.isAttached());
+    }
+
+    @Test
+    public void testPendingChangesRunInOrderAcrossRouters() {
+        TestController parent = new TestController();
+        TestController rootPush1 = new TestController();
+        TestController rootPush2 = new TestController();
+        TestController childRoot = new TestController();
+        TestController childPush = new TestController();
+
+        ActivityProxy activityProxy = new ActivityProxy().create(null);
+        AttachFakingFrameLayout container = new AttachFakingFrameLayout(activityProxy.getActivity());
+        container.setNeedDelayPost(true);
+        activityProxy.setView(container);
+
+        Router router = Conductor.attachRouter(activityProxy.getActivity(), container);
+        router.setRoot(RouterTransaction.with(parent));
+
+        AttachFakingFrameLayout childContainer = new AttachFakingFrameLayout(activityProxy.getActivity());
+        childContainer.setId(TestController.VIEW_ID);
+        childContainer.setNeedDelayPost(true);
+        Router childRouter = parent.getChildRouter(childContainer);
+        childRouter.setRoot(RouterTransaction.with(childRoot));
+
+        activityProxy.start().resume();
+
+        final List<Controller> changeOrder = new ArrayList<>();
+        ControllerChangeListener changeListener = new ControllerChangeListener() {
+            @Override
+            public void onChangeStarted(@Nullable Controller to, @Nullable Controller from, boolean isPush, @NonNull ViewGroup container, @NonNull ControllerChangeHandler handler) {
+                changeOrder.add(to);
+            }
+
+            @Override
+            public void onChangeCompleted(@Nullable Controller to, @Nullable Controller from, boolean isPush, @NonNull ViewGroup container, @NonNull ControllerChangeHandler handler) { }
+        };
+        router.addChangeListener(changeListener);
+        childRouter.addChangeListener(changeListener);
+
+        // Both containers are fully attached before the frame comes, so everything runs in the order it was queued
+        ShadowLooper.pauseMainLooper();
+        router.pushController(RouterTransaction.with(rootPush1));
+        childRouter.pushController(RouterTransaction.with(childPush));
+        router.pushController(RouterTransaction.with(rootPush2));
+        assertTrue(changeOrder.isEmpty());
+
+        container.runDelayedPosts();
+        childContainer.runDelayedPosts();
+        ShadowLooper.unPauseMainLooper();
+        ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+        assertEquals(Arrays.<Controller>asList(rootPush1, childPush, rootPush2), changeOrder);
+    }
+
+    @Test
+    public void testPendingChangesAreTraced() {
+        final List<String> sections = new ArrayList<>();
+        Conductor.setTracer(new ConductorTracer() {
+            @Override
+            public void beginSection(@NonNull String name) {
+                sections.add(name);
+            }
+
+            @Override
+            public void endSection() { }
+        });
+
+        try {
+            ActivityProxy activityProxy = new ActivityProxy().create(null);
+            AttachFakingFrameLayout container = new AttachFakingFrameLayout(activityProxy.getActivity());
+            container.setNeedDelayPost(true);
+            activityProxy.setView(container);
+
+            Router router = Conductor.attachRouter(activityProxy.getActivity(), container);
+            router.setRoot(RouterTransaction.with(new TestController()));
+            activityProxy.start().resume();
+
+            router.pushController(RouterTransaction.with(new TestController()));
+            assertFalse(sections.contains("Router.performPendingControllerChanges ActivityHostedRouter"));
+
+            container.runDelayedPosts();
+            ShadowLooper.runUiThreadTasksIncludingDelayedTasks();
+
+            assertTrue(sections.contains("Router.performPendingControllerChanges ActivityHostedRouter"));
+        } finally {
+            Conductor.setTracer(null);
+        }
+    }
+
     @Test
     public void testPendingChangesAfterRotation() {
         Controller controller1 = new TestController();
@@ -1,6 +1,10 @@
 package com.bluelinelabs.conductor;
 
+import android.app.Activity;
+import android.os.Bundle;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
@@ -10,18 +14,24 @@ import com.bluelinelabs.conductor.changehandler.HorizontalChangeHandler;
 import com.bluelinelabs.conductor.util.ActivityProxy;
 import com.bluelinelabs.conductor.util.MockChangeHandler;
 import com.bluelinelabs.conductor.util.TestController;
+import com.bluelinelabs.conductor.util.ViewUtils;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -29,6 +39,9 @@ import static org.junit.Assert.assertTrue;
 @Config(manifest = Config.NONE)
 public class RouterTests {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private Router router;
 
     @Before
@@ -77,6 +90,47 @@ public class RouterTests {
         assertNull(router.getControllerWithInstanceId("fake id"));
     }
 
+    @Test
+    public void testGetByInstanceIdInChildRouter() {
+        Controller parent = new TestController();
+        router.setRoot(RouterTransaction.with(parent));
+
+        Router childRouter = parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.CHILD_VIEW_ID_1));
+        Controller child = new TestController();
+        childRouter.setRoot(RouterTransaction.with(child));
+
+        assertEquals(child, router.getControllerWithInstanceId(child.getInstanceId()));
+        assertEquals(child, childRouter.getControllerWithInstanceId(child.getInstanceId()));
+        assertNull(childRouter.getControllerWithInstanceId(parent.getInstanceId()));
+
+        Controller newChild = new TestController();
+        childRouter.pushController(RouterTransaction.with(newChild));
+        assertEquals(newChild, router.getControllerWithInstanceId(newChild.getInstanceId()));
+
+        childRouter.popCurrentController();
+        assertNull(router.getControllerWithInstanceId(newChild.getInstanceId()));
+
+        parent.removeChildRouter(childRouter);
+        assertNull(router.getControllerWithInstanceId(child.getInstanceId()));
+    }
+
+    @Test
+    public void testGetByInstanceIdAfterSetBackstack() {
+        RouterTransaction retainedTransaction = RouterTransaction.with(new TestController());
+        RouterTransaction removedTransaction = RouterTransaction.with(new TestController());
+        router.setBackstack(Arrays.asList(retainedTransaction, removedTransaction), null);
+
+        // Builds the index so the following changes have to keep it up to date
+        assertEquals(removedTransaction.controller(), router.getControllerWithInstanceId(removedTransaction.controller().getInstanceId()));
+
+        RouterTransaction addedTransaction = RouterTransaction.with(new TestController());
+        router.setBackstack(Arrays.asList(retainedTransaction, addedTransaction), null);
+
+        assertEquals(retainedTransaction.controller(), router.getControllerWithInstanceId(retainedTransaction.controller().getInstanceId()));
+        assertEquals(addedTransaction.controller(), router.getControllerWithInstanceId(addedTransaction.controller().getInstanceId()));
+        assertNull(router.getControllerWithInstanceId(removedTransaction.controller().getInstanceId()));
+    }
+
     @Test
     public void testGetByTag() {
         String controller1Tag = "controller1";
@@ -492,4 +546,382 @@ public class RouterTests {
         assertTrue(controller3.isBeingDestroyed());
     }
 
+    @Test
+    public void testRestoreIsLazy() {
+        TestController parent = new TestController();
+        router.pushController(RouterTransaction.with(parent));
+        ViewUtils.reportAttached(parent.getView(), true);
+
+        Controller bottom = new TestController();
+        Controller middle = new TestController();
+        Controller top = new TestController();
+
+        Router childRouter = parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.CHILD_VIEW_ID_1));
+        childRouter.setRoot(RouterTransaction.with(bottom).tag("bottom"));
+        childRouter.pushController(RouterTransaction.with(middle));
+        childRouter.pushController(RouterTransaction.with(top));
+
+        Bundle savedState = new Bundle();
+        childRouter.saveInstanceState(savedState);
+        parent.removeChildRouter(childRouter);
+
+        childRouter = parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.CHILD_VIEW_ID_1));
+        childRouter.restoreInstanceState(savedState);
+
+        assertEquals(3, childRouter.getBackstackSize());
+        for (RouterTransaction transaction : childRouter.backstack) {
+            assertFalse(transaction.isHydrated());
+        }
+
+        // Saving again shouldn't need to restore anything
+        Bundle resavedState = new Bundle();
+        childRouter.saveInstanceState(resavedState);
+        for (RouterTransaction transaction : childRouter.backstack) {
+            assertFalse(transaction.isHydrated());
+        }
+
+        Controller restoredBottom = childRouter.getControllerWithTag("bottom");
+        assertNotNull(restoredBottom);
+        assertEquals(bottom.getInstanceId(), restoredBottom.getInstanceId());
+        assertEquals(childRouter, restoredBottom.getRouter());
+        assertEquals(parent, restoredBottom.getParentController());
+
+        List<RouterTransaction> backstack = childRouter.getBackstack();
+        assertTrue(backstack.get(0).isHydrated());
+        assertFalse(backstack.get(1).isHydrated());
+        assertFalse(backstack.get(2).isHydrated());
+
+        Controller restoredMiddle = childRouter.getControllerWithInstanceId(middle.getInstanceId());
+        assertNotNull(restoredMiddle);
+        assertTrue(backstack.get(1).isHydrated());
+        assertEquals(childRouter, restoredMiddle.getRouter());
+        assertFalse(backstack.get(2).isHydrated());
+    }
+
+    @Test
+    public void testDeepEntriesAreStored() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        RouterStateStore defaultStore = Conductor.getRouterStateStore();
+        Conductor.setRouterStateStore(new FileRouterStateStore(directory, 1, Integer.MAX_VALUE));
+
+        try {
+            TestController parent = new TestController();
+            router.pushController(RouterTransaction.with(parent));
+            ViewUtils.reportAttached(parent.getView(), true);
+
+            Controller bottom = new TestController();
+            bottom.getArgs().putString("key", "value");
+            Controller middle = new TestController();
+            Controller top = new TestController();
+
+            Router childRouter = parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.CHILD_VIEW_ID_1));
+            childRouter.setRoot(RouterTransaction.with(bottom));
+            childRouter.pushController(RouterTransaction.with(middle));
+            childRouter.pushController(RouterTransaction.with(top));
+
+            Bundle savedState = new Bundle();
+            childRouter.saveInstanceState(savedState);
+            parent.removeChildRouter(childRouter);
+
+            assertTrue(new File(directory, bottom.getInstanceId()).isFile());
+            assertTrue(new File(directory, middle.getInstanceId()).isFile());
+            assertFalse(new File(directory, top.getInstanceId()).exists());
+
+            childRouter = parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.CHILD_VIEW_ID_1));
+            childRouter.restoreInstanceState(savedState);
+
+            Controller restoredBottom = childRouter.getControllerWithInstanceId(bottom.getInstanceId());
+            assertNotNull(restoredBottom);
+            assertEquals("value", restoredBottom.getArgs().getString("key"));
+
+            childRouter.popToRoot();
+            assertFalse(new File(directory, middle.getInstanceId()).exists());
+        } finally {
+            Conductor.setRouterStateStore(defaultStore);
+        }
+    }
+
+    @Test
+    public void testStoredStateDeletedWhenActivityFinishes() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        RouterStateStore defaultStore = Conductor.getRouterStateStore();
+        Conductor.setRouterStateStore(new FileRouterStateStore(directory, 1, FileRouterStateStore.NO_BYTE_LIMIT));
+
+        try {
+            TestController parent = new TestController();
+            router.pushController(RouterTransaction.with(parent));
+            ViewUtils.reportAttached(parent.getView(), true);
+
+            Controller bottom = new TestController();
+            Controller top = new TestController();
+
+            Router childRouter = parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.CHILD_VIEW_ID_1));
+            childRouter.setRoot(RouterTransaction.with(bottom));
+            childRouter.pushController(RouterTransaction.with(top));
+
+            Bundle savedState = new Bundle();
+            childRouter.saveInstanceState(savedState);
+            parent.removeChildRouter(childRouter);
+
+            // The restored bottom entry is never hydrated, so only its transaction knows about its stored state
+            childRouter = parent.getChildRouter((ViewGroup)parent.getView().findViewById(TestController.CHILD_VIEW_ID_1));
+            childRouter.restoreInstanceState(savedState);
+            assertTrue(new File(directory, bottom.getInstanceId()).isFile());
+
+            Activity activity = router.getActivity();
+            activity.finish();
+            router.onActivityDestroyed(activity, false);
+            assertFalse(new File(directory, bottom.getInstanceId()).exists());
+        } finally {
+            Conductor.setRouterStateStore(defaultStore);
+        }
+    }
+
+    @Test
+    public void testStoredStateKeptWhenActivityIsRecreated() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        RouterStateStore defaultStore = Conductor.getRouterStateStore();
+        Conductor.setRouterStateStore(new FileRouterStateStore(directory, 1, FileRouterStateStore.NO_BYTE_LIMIT));
+
+        try {
+            ActivityProxy activityProxy = new ActivityProxy().create(null).start().resume();
+            Router router = Conductor.attachRouter(activityProxy.getActivity(), activityProxy.getView());
+
+            Controller bottom = new TestController();
+            bottom.getArgs().putString("key", "value");
+            router.setRoot(RouterTransaction.with(bottom));
+            router.pushController(RouterTransaction.with(new TestController()));
+
+            Bundle savedState = new Bundle();
+            activityProxy.pause().saveInstanceState(savedState).stop(true);
+            assertTrue(new File(directory, bottom.getInstanceId()).isFile());
+
+            // The system destroys the Activity without finishing it, and recreates it from its saved state later
+            activityProxy.destroy();
+            assertTrue(new File(directory, bottom.getInstanceId()).isFile());
+
+            activityProxy = new ActivityProxy().create(savedState).start().resume();
+            router = Conductor.attachRouter(activityProxy.getActivity(), activityProxy.getView());
+
+            Controller restoredBottom = router.getControllerWithInstanceId(bottom.getInstanceId());
+            assertNotNull(restoredBottom);
+            assertEquals("value", restoredBottom.getArgs().getString("key"));
+        } finally {
+            Conductor.setRouterStateStore(defaultStore);
+        }
+    }
+
+    @Test
+    public void testStoredStateFromBeforeBootIsDeleted() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        File oldFile = new File(directory, "old");
+        File newFile = new File(directory, "new");
+        assertTrue(oldFile.createNewFile());
+        assertTrue(newFile.createNewFile());
+        assertTrue(oldFile.setLastModified(0));
+
+        // Files are only swept once something is written
+        FileRouterStateStore store = new FileRouterStateStore(directory, 1, FileRouterStateStore.NO_BYTE_LIMIT);
+        assertTrue(oldFile.exists());
+
+        assertTrue(store.write("key", new Bundle()));
+        assertFalse(oldFile.exists());
+        assertTrue(newFile.exists());
+        assertTrue(new File(directory, "key").isFile());
+    }
+
+    @Test
+    public void testFileStoreInstalledByDefault() {
+        assertTrue(Conductor.getRouterStateStore() instanceof FileRouterStateStore);
+    }
+
+    @Test
+    public void testBatchOnlyInflatesVisibleControllers() {
+        TestController root = new TestController();
+        TestController oldTop = new TestController();
+        router.setRoot(RouterTransaction.with(root));
+        router.pushController(RouterTransaction.with(oldTop));
+
+        TestController middle = new TestController();
+        TestController top = new TestController();
+        router.beginTransaction()
+                .popToRoot(null)
+                .pushController(RouterTransaction.with(middle).tag("middle"))
+                .pushController(RouterTransaction.with(top))
+                .commit();
+
+        List<RouterTransaction> backstack = router.getBackstack();
+        assertEquals(3, backstack.size());
+        assertEquals(root, backstack.get(0).controller());
+        assertEquals(middle, backstack.get(1).controller());
+        assertEquals(top, backstack.get(2).controller());
+
+        assertEquals(0, middle.currentCallState.createViewCalls);
+        assertEquals(1, top.currentCallState.createViewCalls);
+        assertTrue(top.isAttached());
+        assertTrue(oldTop.isDestroyed());
+    }
+
+    @Test
+    public void testPrefetchOffMainThread() {
+        BackgroundController controller = new BackgroundController();
+        RouterTransaction transaction = RouterTransaction.with(controller);
+
+        router.prefetch(transaction);
+        router.pushController(transaction);
+
+        assertEquals(1, controller.currentCallState.createViewCalls);
+        assertNotNull(controller.createViewThread);
+        assertFalse(controller.createViewThread == Thread.currentThread());
+        assertTrue(controller.isAttached());
+    }
+
+    @Test
+    public void testPrefetchCreateViewCallbacks() {
+        BackgroundController controller = new BackgroundController();
+        final List<String> callbacks = new ArrayList<>();
+        controller.addLifecycleListener(new CreateViewRecorder(callbacks));
+        RouterTransaction transaction = RouterTransaction.with(controller);
+
+        router.prefetch(transaction);
+        router.pushController(transaction);
+
+        // Only the view is built on the background thread, and the callbacks run on the main thread once it's used
+        Thread mainThread = Thread.currentThread();
+        assertEquals(Arrays.asList("preCreateView " + mainThread.getName(), "postCreateView " + mainThread.getName()), callbacks);
+        assertFalse(controller.createViewThread == mainThread);
+    }
+
+    @Test
+    public void testPrefetchDroppedWhenContainerDetaches() {
+        TestController controller = new TestController();
+        List<String> callbacks = new ArrayList<>();
+        controller.addLifecycleListener(new CreateViewRecorder(callbacks));
+        router.prefetch(RouterTransaction.with(controller));
+        assertNotNull(controller.viewPrefetch);
+
+        ViewUtils.reportAttached(router.container, false);
+
+        assertNull(controller.viewPrefetch);
+        assertTrue(callbacks.isEmpty());
+    }
+
+    @Test
+    public void testPushBeforePrefetchCompletes() {
+        TestController controller = new TestController();
+        RouterTransaction transaction = RouterTransaction.with(controller);
+
+        router.prefetch(transaction);
+        router.pushController(transaction);
+
+        // The main thread never went idle, so the view is created as part of the push and the prefetch is dropped
+        assertEquals(1, controller.currentCallState.createViewCalls);
+        assertTrue(controller.isAttached());
+    }
+
+    @Test
+    public void testMetricsListener() {
+        final List<ChangeMetrics> reported = new ArrayList<>();
+        ConductorMetrics metricsListener = new ConductorMetrics() {
+            @Override
+            public void onChangeMeasured(@NonNull ChangeMetrics metrics) {
+                reported.add(metrics);
+            }
+        };
+        router.addMetricsListener(metricsListener);
+
+        router.setRoot(RouterTransaction.with(new TestController()));
+        router.pushController(RouterTransaction.with(new TestController()).pushChangeHandler(MockChangeHandler.defaultHandler()));
+
+        assertEquals(2, reported.size());
+
+        ChangeMetrics push = reported.get(1);
+        assertTrue(push.isPush());
+        assertEquals(TestController.class, push.getToControllerClass());
+        assertEquals(TestController.class, push.getFromControllerClass());
+        assertEquals(MockChangeHandler.class, push.getChangeHandlerClass());
+        assertTrue(push.getCreateViewNanos() > 0);
+        assertTrue(push.getChangeNanos() >= push.getCreateViewNanos());
+        assertTrue(push.getTotalNanos() >= push.getChangeNanos());
+
+        router.removeMetricsListener(metricsListener);
+        router.popCurrentController();
+
+        assertEquals(2, reported.size());
+    }
+
+    @Test
+    public void testIncrementalStateSaving() {
+        Conductor.setIncrementalStateSaving(true);
+
+        try {
+            TestController bottom = new TestController();
+            TestController top = new TestController();
+            router.setRoot(RouterTransaction.with(bottom));
+            router.pushController(RouterTransaction.with(top).pushChangeHandler(MockChangeHandler.defaultHandler()));
+            assertFalse(bottom.isAttached());
+
+            router.saveInstanceState(new Bundle());
+            router.saveInstanceState(new Bundle());
+
+            // Only the attached Controller is saved again
+            assertEquals(1, bottom.currentCallState.saveInstanceStateCalls);
+            assertEquals(2, top.currentCallState.saveInstanceStateCalls);
+
+            bottom.invalidateSavedState();
+            router.saveInstanceState(new Bundle());
+            assertEquals(2, bottom.currentCallState.saveInstanceStateCalls);
+
+            // Nothing cached is reused once incremental saving is turned off, or after it's turned back on
+            Conductor.setIncrementalStateSaving(false);
+            router.saveInstanceState(new Bundle());
+            assertEquals(3, bottom.currentCallState.saveInstanceStateCalls);
+
+            Conductor.setIncrementalStateSaving(true);
+            router.saveInstanceState(new Bundle());
+            router.saveInstanceState(new Bundle());
+            assertEquals(4, bottom.currentCallState.saveInstanceStateCalls);
+
+            router.popCurrentController();
+            router.saveInstanceState(new Bundle());
+            assertEquals(5, bottom.currentCallState.saveInstanceStateCalls);
+        } finally {
+            Conductor.setIncrementalStateSaving(false);
+        }
+    }
+
+    private static class CreateViewRecorder extends LifecycleListener {
+        private final List<String> callbacks;
+
+        CreateViewRecorder(List<String> callbacks) {
+            this.callbacks = callbacks;
+        }
+
+        @Override
+        public void preCreateView(@NonNull Controller controller) {
+            callbacks.add("preCreateView " + Thread.currentThread().getName());
+        }
+
+        @Override
+        public void postCreateView(@NonNull Controller controller, @NonNull View view) {
+            callbacks.add("postCreateView " + Thread.currentThread().getName());
+        }
+    }
+
+    public static class BackgroundController extends TestController {
+        volatile Thread createViewThread;
+
+        @NonNull
+        @Override
+        protected View onCreateView(@NonNull LayoutInflater inflater, @NonNull ViewGroup container, @Nullable Bundle savedViewState) {
+            createViewThread = Thread.currentThread();
+            return super.onCreateView(inflater, container, savedViewState);
+        }
+
+        @Override
+        protected boolean canPrepareViewOffMainThread() {
+            return true;
+        }
+    }
+
 }
@@ -11,6 +11,7 @@ public class TestActivity extends AppCompatActivity {
 
     public boolean isChangingConfigurations = false;
     public boolean isDestroying = false;
+    public int invalidateOptionsMenuCalls = 0;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -23,6 +24,12 @@ public class TestActivity extends AppCompatActivity {
         return isChangingConfigurations;
     }
 
+    @Override
+    public void invalidateOptionsMenu() {
+        invalidateOptionsMenuCalls++;
+        super.invalidateOptionsMenu();
+    }
+
     @Override
     public boolean isDestroyed() {
         return isDestroying || super.isDestroyed();